@@ -0,0 +1,27 @@
+package com.fincategorizer.analytics.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+
+@Configuration
+public class RestClientConfig {
+    
+    @Bean
+    public RestClient categoryServiceClient(
+            RestClient.Builder builder,
+            @Value("${category-service.url}") String categoryServiceUrl,
+            @Value("${category-service.timeout:2s}") Duration timeout) {
+        return builder
+            .baseUrl(categoryServiceUrl)
+            .requestFactory(ClientHttpRequestFactories.get(ClientHttpRequestFactorySettings.DEFAULTS
+                .withConnectTimeout(timeout)
+                .withReadTimeout(timeout)))
+            .build();
+    }
+}
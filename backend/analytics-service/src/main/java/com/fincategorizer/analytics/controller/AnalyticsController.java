@@ -27,18 +27,24 @@ public class AnalyticsController {
     
     @GetMapping("/category-distribution")
     public ResponseEntity<CategoryDistributionResponse> getCategoryDistribution(
-            @RequestHeader("X-User-Id") Long userId) {
-        log.info("GET /api/analytics/category-distribution - userId: {}", userId);
-        CategoryDistributionResponse response = analyticsService.getCategoryDistribution(userId);
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam(defaultValue = "false") boolean rollup,
+            @RequestParam(required = false) Long parentCategoryId) {
+        log.info("GET /api/analytics/category-distribution - userId: {}, rollup: {}, parentCategoryId: {}",
+            userId, rollup, parentCategoryId);
+        // Drilling down into a parent always rolls up to its children
+        CategoryDistributionResponse response = analyticsService.getCategoryDistribution(
+            userId, rollup || parentCategoryId != null, parentCategoryId);
         return ResponseEntity.ok(response);
     }
     
     @GetMapping("/trends")
     public ResponseEntity<TrendsResponse> getTrends(
             @RequestHeader("X-User-Id") Long userId,
-            @RequestParam(defaultValue = "30") Integer days) {
-        log.info("GET /api/analytics/trends - userId: {}, days: {}", userId, days);
-        TrendsResponse response = analyticsService.getTrends(userId, days);
+            @RequestParam(defaultValue = "30") Integer days,
+            @RequestParam(required = false) Long categoryId) {
+        log.info("GET /api/analytics/trends - userId: {}, days: {}, categoryId: {}", userId, days, categoryId);
+        TrendsResponse response = analyticsService.getTrends(userId, days, categoryId);
         return ResponseEntity.ok(response);
     }
 }
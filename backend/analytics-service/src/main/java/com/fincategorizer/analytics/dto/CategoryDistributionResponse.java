@@ -14,15 +14,19 @@ import java.util.List;
 public class CategoryDistributionResponse {
     
     private List<CategoryData> distribution;
+    private Boolean rolledUp;
+    private Long parentCategoryId;
     
     @Data
     @Builder
     @NoArgsConstructor
     @AllArgsConstructor
     public static class CategoryData {
+        private Long categoryId;
         private String categoryName;
         private Integer count;
         private Double percentage;
         private Double totalAmount;
+        private Boolean hasChildren;
     }
 }
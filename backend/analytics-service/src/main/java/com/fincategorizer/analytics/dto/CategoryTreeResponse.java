@@ -0,0 +1,34 @@
+package com.fincategorizer.analytics.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Category hierarchy as served by category-service: nodes in depth-first order, where a
+ * node's subtree is the nodes whose enter lies in its [enter, exit) interval.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryTreeResponse {
+    
+    private List<Node> nodes;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Node {
+        private Long categoryId;
+        private String categoryName;
+        private Long parentCategoryId;
+        private Integer depth;
+        private Integer enter;
+        private Integer exit;
+    }
+}
@@ -2,6 +2,7 @@ package com.fincategorizer.analytics.service;
 
 import com.fincategorizer.analytics.dto.AccuracyResponse;
 import com.fincategorizer.analytics.dto.CategoryDistributionResponse;
+import com.fincategorizer.analytics.dto.CategoryTreeResponse;
 import com.fincategorizer.analytics.dto.TrendsResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -10,8 +11,12 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -19,6 +24,7 @@ import java.util.Map;
 public class AnalyticsService {
     
     private final JdbcTemplate jdbcTemplate;
+    private final CategoryTreeClient categoryTreeClient;
     
     public AccuracyResponse getAccuracy(Long userId) {
         log.info("Calculating accuracy for user: {}", userId);
@@ -45,10 +51,15 @@ public class AnalyticsService {
             .build();
     }
     
-    public CategoryDistributionResponse getCategoryDistribution(Long userId) {
-        log.info("Getting category distribution for user: {}", userId);
-        
-        String sql = "SELECT c.category_name, COUNT(t.transaction_id) as count, " +
+    /**
+     * Spend per category. With rollup, spend of subcategories is added to their top-level
+     * category, or to the children of parentCategoryId when drilling down. Falls back to
+     * the flat distribution when the category tree is unavailable.
+     */
+    public CategoryDistributionResponse getCategoryDistribution(Long userId, boolean rollup, Long parentCategoryId) {
+        log.info("Getting category distribution for user: {}, rollup: {}, parent: {}", userId, rollup, parentCategoryId);
+        
+        String sql = "SELECT c.category_id, c.category_name, COUNT(t.transaction_id) as count, " +
                     "SUM(t.amount) as total_amount " +
                     "FROM transactions t " +
                     "JOIN categories c ON t.category_id = c.category_id " +
@@ -58,34 +69,65 @@ public class AnalyticsService {
         
         List<Map<String, Object>> results = jdbcTemplate.queryForList(sql, userId);
         
-        Long totalCount = results.stream()
-            .mapToLong(r -> ((Number) r.get("count")).longValue())
-            .sum();
-        
-        List<CategoryDistributionResponse.CategoryData> distribution = new ArrayList<>();
+        CategoryTreeResponse tree = rollup ? categoryTreeClient.getTree(userId) : null;
+        CategoryRollup categoryRollup = tree != null ? CategoryRollup.under(tree, parentCategoryId) : null;
         
+        // One pass over the per-category rows; with rollup, rows are summed into their target
+        Map<Long, CategoryTotal> totals = new LinkedHashMap<>();
         for (Map<String, Object> row : results) {
-            String categoryName = (String) row.get("category_name");
-            Integer count = ((Number) row.get("count")).intValue();
-            Double totalAmount = row.get("total_amount") != null ? 
-                ((Number) row.get("total_amount")).doubleValue() : 0.0;
-            Double percentage = totalCount > 0 ? (count.doubleValue() / totalCount) * 100 : 0.0;
-            
-            distribution.add(CategoryDistributionResponse.CategoryData.builder()
-                .categoryName(categoryName)
-                .count(count)
-                .percentage(percentage)
-                .totalAmount(totalAmount)
-                .build());
+            CategoryTotal total;
+            Long categoryId = ((Number) row.get("category_id")).longValue();
+            CategoryTreeResponse.Node target = categoryRollup != null ? categoryRollup.targetFor(categoryId) : null;
+            if (target != null) {
+                boolean drillable = !target.getCategoryId().equals(parentCategoryId) && CategoryRollup.hasChildren(target);
+                total = totals.computeIfAbsent(target.getCategoryId(),
+                    id -> new CategoryTotal(id, target.getCategoryName(), drillable));
+            } else if (categoryRollup != null && parentCategoryId != null) {
+                continue; // outside the drilled-down subtree
+            } else {
+                total = totals.computeIfAbsent(categoryId,
+                    id -> new CategoryTotal(id, (String) row.get("category_name"), categoryRollup != null ? false : null));
+            }
+            total.count += ((Number) row.get("count")).longValue();
+            total.amount += row.get("total_amount") != null ? ((Number) row.get("total_amount")).doubleValue() : 0.0;
         }
         
+        long totalCount = totals.values().stream()
+            .mapToLong(total -> total.count)
+            .sum();
+        
+        List<CategoryDistributionResponse.CategoryData> distribution = totals.values().stream()
+            .sorted(Comparator.comparingLong((CategoryTotal total) -> total.count).reversed())
+            .map(total -> CategoryDistributionResponse.CategoryData.builder()
+                .categoryId(total.categoryId)
+                .categoryName(total.categoryName)
+                .count((int) total.count)
+                .percentage(totalCount > 0 ? ((double) total.count / totalCount) * 100 : 0.0)
+                .totalAmount(total.amount)
+                .hasChildren(total.hasChildren)
+                .build())
+            .collect(Collectors.toList());
+        
         return CategoryDistributionResponse.builder()
             .distribution(distribution)
+            .rolledUp(categoryRollup != null)
+            .parentCategoryId(categoryRollup != null ? parentCategoryId : null)
             .build();
     }
     
-    public TrendsResponse getTrends(Long userId, Integer days) {
-        log.info("Getting trends for user: {} for last {} days", userId, days);
+    /**
+     * Daily totals, optionally restricted to a category and all of its subcategories.
+     */
+    public TrendsResponse getTrends(Long userId, Integer days, Long categoryId) {
+        log.info("Getting trends for user: {} for last {} days, category: {}", userId, days, categoryId);
+        
+        List<Object> params = new ArrayList<>(List.of(userId, days));
+        String categoryFilter = "";
+        if (categoryId != null) {
+            List<Long> categoryIds = subtreeIds(userId, categoryId);
+            categoryFilter = "AND category_id IN (" + String.join(",", Collections.nCopies(categoryIds.size(), "?")) + ") ";
+            params.addAll(categoryIds);
+        }
         
         String sql = "SELECT DATE(transaction_date) as date, " +
                     "SUM(amount) as total_amount, " +
@@ -93,10 +135,11 @@ public class AnalyticsService {
                     "AVG(confidence_score) as avg_confidence " +
                     "FROM transactions " +
                     "WHERE user_id = ? AND transaction_date >= DATE_SUB(CURDATE(), INTERVAL ? DAY) " +
+                    categoryFilter +
                     "GROUP BY DATE(transaction_date) " +
                     "ORDER BY date";
         
-        List<Map<String, Object>> results = jdbcTemplate.queryForList(sql, userId, days);
+        List<Map<String, Object>> results = jdbcTemplate.queryForList(sql, params.toArray());
         
         List<TrendsResponse.TrendData> trends = new ArrayList<>();
         
@@ -119,4 +162,25 @@ public class AnalyticsService {
             .trends(trends)
             .build();
     }
+    
+    private List<Long> subtreeIds(Long userId, Long categoryId) {
+        CategoryTreeResponse tree = categoryTreeClient.getTree(userId);
+        List<Long> categoryIds = tree != null ? CategoryRollup.subtreeIds(tree, categoryId) : List.of();
+        // Without the tree only the category itself can be matched
+        return categoryIds.isEmpty() ? List.of(categoryId) : categoryIds;
+    }
+    
+    private static final class CategoryTotal {
+        private final Long categoryId;
+        private final String categoryName;
+        private final Boolean hasChildren;
+        private long count;
+        private double amount;
+        
+        private CategoryTotal(Long categoryId, String categoryName, Boolean hasChildren) {
+            this.categoryId = categoryId;
+            this.categoryName = categoryName;
+            this.hasChildren = hasChildren;
+        }
+    }
 }
@@ -0,0 +1,98 @@
+package com.fincategorizer.analytics.service;
+
+import com.fincategorizer.analytics.dto.CategoryTreeResponse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps categories to the node they roll up to: the top-level categories, or the
+ * children of a parent when drilling down. Uses the depth-first intervals of the tree,
+ * so each lookup is a map get plus a binary search over the targets.
+ */
+final class CategoryRollup {
+
+    private final Map<Long, CategoryTreeResponse.Node> byId;
+    private final CategoryTreeResponse.Node parent;
+    private final List<CategoryTreeResponse.Node> targets;
+
+    private CategoryRollup(Map<Long, CategoryTreeResponse.Node> byId, CategoryTreeResponse.Node parent,
+                           List<CategoryTreeResponse.Node> targets) {
+        this.byId = byId;
+        this.parent = parent;
+        this.targets = targets;
+    }
+
+    /**
+     * Rolls up to the children of parentCategoryId, or to the top-level categories when
+     * it is null. An unknown parent leaves nothing to roll up to.
+     */
+    static CategoryRollup under(CategoryTreeResponse tree, Long parentCategoryId) {
+        Map<Long, CategoryTreeResponse.Node> byId = new HashMap<>(tree.getNodes().size() * 2);
+        tree.getNodes().forEach(node -> byId.put(node.getCategoryId(), node));
+        CategoryTreeResponse.Node parent = parentCategoryId != null ? byId.get(parentCategoryId) : null;
+
+        // Nodes arrive in depth-first order, so the targets are sorted by enter
+        List<CategoryTreeResponse.Node> targets = new ArrayList<>();
+        for (CategoryTreeResponse.Node node : tree.getNodes()) {
+            boolean isTarget = parentCategoryId == null
+                ? node.getParentCategoryId() == null
+                : parent != null && parentCategoryId.equals(node.getParentCategoryId());
+            if (isTarget) {
+                targets.add(node);
+            }
+        }
+        return new CategoryRollup(byId, parent, targets);
+    }
+
+    /**
+     * The node that categoryId's spend is attributed to. When drilling down, the parent's
+     * own spend stays on the parent. Returns null for categories outside the tree or
+     * outside the drilled-down subtree.
+     */
+    CategoryTreeResponse.Node targetFor(Long categoryId) {
+        CategoryTreeResponse.Node node = byId.get(categoryId);
+        if (node == null) {
+            return null;
+        }
+        if (parent != null && node.getCategoryId().equals(parent.getCategoryId())) {
+            return parent;
+        }
+
+        int low = 0;
+        int high = targets.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            CategoryTreeResponse.Node target = targets.get(mid);
+            if (node.getEnter() < target.getEnter()) {
+                high = mid - 1;
+            } else if (node.getEnter() >= target.getExit()) {
+                low = mid + 1;
+            } else {
+                return target;
+            }
+        }
+        return null;
+    }
+
+    static boolean hasChildren(CategoryTreeResponse.Node node) {
+        return node.getExit() - node.getEnter() > 1;
+    }
+
+    /**
+     * Ids of the category and all of its descendants; empty if it is not in the tree.
+     */
+    static List<Long> subtreeIds(CategoryTreeResponse tree, Long categoryId) {
+        List<CategoryTreeResponse.Node> nodes = tree.getNodes();
+        for (CategoryTreeResponse.Node node : nodes) {
+            if (node.getCategoryId().equals(categoryId)) {
+                return nodes.subList(node.getEnter(), node.getExit()).stream()
+                    .map(CategoryTreeResponse.Node::getCategoryId)
+                    .toList();
+            }
+        }
+        return List.of();
+    }
+}
@@ -0,0 +1,35 @@
+package com.fincategorizer.analytics.service;
+
+import com.fincategorizer.analytics.dto.CategoryTreeResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Fetches a user's category hierarchy from category-service, which keeps it in memory.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryTreeClient {
+    
+    private final RestClient categoryServiceClient;
+    
+    /**
+     * Returns the tree, or null when category-service cannot be reached.
+     */
+    public CategoryTreeResponse getTree(Long userId) {
+        try {
+            return categoryServiceClient.get()
+                .uri("/api/categories/tree")
+                .header("X-User-Id", String.valueOf(userId))
+                .retrieve()
+                .body(CategoryTreeResponse.class);
+        } catch (RestClientException e) {
+            log.warn("Failed to fetch category tree for user {}: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+}
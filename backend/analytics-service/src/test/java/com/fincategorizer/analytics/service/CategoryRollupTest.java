@@ -0,0 +1,95 @@
+package com.fincategorizer.analytics.service;
+
+import com.fincategorizer.analytics.dto.CategoryTreeResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CategoryRollupTest {
+
+    // Food(1) > [Groceries(2), Restaurants(3) > [Fast Food(4), Cafes(5)]], Transport(6) > Fuel(7), Others(8)
+    private final CategoryTreeResponse tree = CategoryTreeResponse.builder()
+        .nodes(List.of(
+            node(1L, null, 0, 0, 5),
+            node(2L, 1L, 1, 1, 2),
+            node(3L, 1L, 1, 2, 5),
+            node(4L, 3L, 2, 3, 4),
+            node(5L, 3L, 2, 4, 5),
+            node(6L, null, 0, 5, 7),
+            node(7L, 6L, 1, 6, 7),
+            node(8L, null, 0, 7, 8)))
+        .build();
+
+    @Test
+    void rollsUpToTopLevelCategories() {
+        CategoryRollup rollup = CategoryRollup.under(tree, null);
+
+        assertThat(rollup.targetFor(1L).getCategoryId()).isEqualTo(1L);
+        assertThat(rollup.targetFor(4L).getCategoryId()).isEqualTo(1L);
+        assertThat(rollup.targetFor(5L).getCategoryId()).isEqualTo(1L);
+        assertThat(rollup.targetFor(7L).getCategoryId()).isEqualTo(6L);
+        assertThat(rollup.targetFor(8L).getCategoryId()).isEqualTo(8L);
+    }
+
+    @Test
+    void findsEveryTargetByBinarySearch() {
+        CategoryRollup rollup = CategoryRollup.under(tree, null);
+
+        // First, middle and last target, each from its first and last descendant
+        for (long[] expected : new long[][] {{1, 1}, {2, 1}, {5, 1}, {6, 6}, {7, 6}, {8, 8}}) {
+            assertThat(rollup.targetFor(expected[0]).getCategoryId())
+                .as("target of %d", expected[0])
+                .isEqualTo(expected[1]);
+        }
+    }
+
+    @Test
+    void drillsDownToChildrenAndKeepsParentSpendOnParent() {
+        CategoryRollup rollup = CategoryRollup.under(tree, 1L);
+
+        assertThat(rollup.targetFor(1L).getCategoryId()).isEqualTo(1L);
+        assertThat(rollup.targetFor(2L).getCategoryId()).isEqualTo(2L);
+        assertThat(rollup.targetFor(4L).getCategoryId()).isEqualTo(3L);
+        assertThat(rollup.targetFor(5L).getCategoryId()).isEqualTo(3L);
+        assertThat(rollup.targetFor(6L)).isNull();
+        assertThat(rollup.targetFor(8L)).isNull();
+    }
+
+    @Test
+    void drillsDownIntoLeafAndUnknownParent() {
+        CategoryRollup leaf = CategoryRollup.under(tree, 4L);
+        assertThat(leaf.targetFor(4L).getCategoryId()).isEqualTo(4L);
+        assertThat(leaf.targetFor(5L)).isNull();
+
+        CategoryRollup unknown = CategoryRollup.under(tree, 99L);
+        assertThat(unknown.targetFor(1L)).isNull();
+        assertThat(unknown.targetFor(4L)).isNull();
+    }
+
+    @Test
+    void ignoresCategoriesOutsideTheTree() {
+        assertThat(CategoryRollup.under(tree, null).targetFor(99L)).isNull();
+    }
+
+    @Test
+    void listsSubtreeIds() {
+        assertThat(CategoryRollup.subtreeIds(tree, 3L)).containsExactly(3L, 4L, 5L);
+        assertThat(CategoryRollup.subtreeIds(tree, 8L)).containsExactly(8L);
+        assertThat(CategoryRollup.subtreeIds(tree, 99L)).isEmpty();
+        assertThat(CategoryRollup.hasChildren(tree.getNodes().get(0))).isTrue();
+        assertThat(CategoryRollup.hasChildren(tree.getNodes().get(1))).isFalse();
+    }
+
+    private static CategoryTreeResponse.Node node(Long id, Long parentId, int depth, int enter, int exit) {
+        return CategoryTreeResponse.Node.builder()
+            .categoryId(id)
+            .categoryName("Category " + id)
+            .parentCategoryId(parentId)
+            .depth(depth)
+            .enter(enter)
+            .exit(exit)
+            .build();
+    }
+}
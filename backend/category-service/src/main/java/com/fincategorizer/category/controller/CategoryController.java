@@ -1,16 +1,21 @@
 package com.fincategorizer.category.controller;
 
+import com.fincategorizer.category.dto.CategoryReassignmentResponse;
 import com.fincategorizer.category.dto.CategoryRequest;
 import com.fincategorizer.category.dto.CategoryResponse;
+import com.fincategorizer.category.dto.CategoryTreeResponse;
+import com.fincategorizer.category.service.CategoryListCache.SerializedCategories;
 import com.fincategorizer.category.service.CategoryService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.net.URI;
 
 @RestController
 @RequestMapping("/api/categories")
@@ -20,12 +25,27 @@ public class CategoryController {
     
     private final CategoryService categoryService;
     
+    /**
+     * Returns the category list with a strong ETag. Spring answers a matching
+     * If-None-Match with 304 Not Modified and no body.
+     */
     @GetMapping
-    public ResponseEntity<List<CategoryResponse>> getAllCategories(
+    public ResponseEntity<byte[]> getAllCategories(
             @RequestHeader("X-User-Id") Long userId) {
         log.info("GET /api/categories - userId: {}", userId);
-        List<CategoryResponse> categories = categoryService.getAllCategories(userId);
-        return ResponseEntity.ok(categories);
+        SerializedCategories categories = categoryService.getAllCategories(userId);
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .eTag(categories.etag())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(categories.json());
+    }
+    
+    @GetMapping("/tree")
+    public ResponseEntity<CategoryTreeResponse> getCategoryTree(
+            @RequestHeader("X-User-Id") Long userId) {
+        log.info("GET /api/categories/tree - userId: {}", userId);
+        return ResponseEntity.ok(categoryService.getCategoryTree(userId));
     }
     
     @PostMapping
@@ -47,12 +67,32 @@ public class CategoryController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Deletes an unused category right away. With reassignTo, its transactions are moved
+     * to that category in the background and the job is returned with 202 Accepted.
+     */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteCategory(
+    public ResponseEntity<CategoryReassignmentResponse> deleteCategory(
+            @RequestHeader("X-User-Id") Long userId,
+            @PathVariable Long id,
+            @RequestParam(required = false) Long reassignTo) {
+        log.info("DELETE /api/categories/{} - userId: {}, reassignTo: {}", id, userId, reassignTo);
+        if (reassignTo == null) {
+            categoryService.deleteCategory(id, userId);
+            return ResponseEntity.noContent().build();
+        }
+        CategoryReassignmentResponse job = categoryService.deleteCategory(id, userId, reassignTo);
+        return ResponseEntity.accepted()
+            .location(URI.create("/api/categories/reassignments/" + job.getJobId()))
+            .body(job);
+    }
+    
+    @GetMapping("/reassignments/{jobId}")
+    public ResponseEntity<CategoryReassignmentResponse> getReassignment(
             @RequestHeader("X-User-Id") Long userId,
-            @PathVariable Long id) {
-        log.info("DELETE /api/categories/{} - userId: {}", id, userId);
-        categoryService.deleteCategory(id, userId);
-        return ResponseEntity.noContent().build();
+            @PathVariable String jobId) {
+        log.info("GET /api/categories/reassignments/{} - userId: {}", jobId, userId);
+        CategoryReassignmentResponse job = categoryService.getReassignment(jobId, userId);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
     }
 }
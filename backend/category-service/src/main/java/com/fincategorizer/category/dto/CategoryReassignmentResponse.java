@@ -0,0 +1,28 @@
+package com.fincategorizer.category.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a category delete that moves the category's rows to another category.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryReassignmentResponse {
+    
+    private String jobId;
+    private Long categoryId;
+    private Long targetCategoryId;
+    private String status; // RUNNING, COMPLETED, FAILED
+    private Long transactionsMoved;
+    private Long trainingRowsMoved;
+    private String error;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
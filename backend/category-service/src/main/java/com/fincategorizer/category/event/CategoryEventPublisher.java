@@ -0,0 +1,42 @@
+package com.fincategorizer.category.event;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Publishes category changes to a Redis stream so other services can drop state derived
+ * from a category, such as transaction-service's merchant cache. Events are recorded in
+ * the outbox first and relayed here by {@link CategoryOutbox}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryEventPublisher {
+    
+    private final StringRedisTemplate stringRedisTemplate;
+    
+    @Value("${events.redis.stream:category-events}")
+    private String stream;
+    
+    @Value("${events.redis.max-length:10000}")
+    private long maxLength;
+    
+    /**
+     * Appends one entry with the given fields to the stream.
+     */
+    public void publish(Map<String, String> fields) {
+        XAddOptions options = XAddOptions.maxlen(maxLength).approximateTrimming(true);
+        stringRedisTemplate.execute((RedisCallback<Object>) connection ->
+            ((StringRedisConnection) connection).xAdd(StreamRecords.string(fields).withStreamKey(stream), options));
+        log.debug("Published {} to {}", fields.get("eventType"), stream);
+    }
+}
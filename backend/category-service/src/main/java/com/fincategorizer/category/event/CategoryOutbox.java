@@ -0,0 +1,138 @@
+package com.fincategorizer.category.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Category events written to category_outbox in the transaction of the change, and
+ * relayed to the stream by a scheduled poll in event id order. A row stays unpublished
+ * until the stream accepted it, so an event is never lost to a Redis outage; it can be
+ * published twice if marking it fails, which consumers tolerate since every event only
+ * drops cached state.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryOutbox {
+    
+    public static final String CATEGORY_DELETED = "CATEGORY_DELETED";
+    public static final String MERCHANT_PATTERN_CHANGED = "MERCHANT_PATTERN_CHANGED";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CategoryEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${events.outbox.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${events.outbox.retention:7d}")
+    private Duration retention;
+    
+    /**
+     * Records the deletion of a category; must run in the transaction that deletes it.
+     */
+    public void recordDeleted(Long categoryId, Long userId, Long reassignedTo) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("eventType", CATEGORY_DELETED);
+        fields.put("categoryId", String.valueOf(categoryId));
+        fields.put("userId", String.valueOf(userId));
+        fields.put("reassignedTo", String.valueOf(reassignedTo));
+        record(fields);
+    }
+    
+    /**
+     * Records that the learned pattern of a merchant was promoted, changed or deactivated
+     * (active false), so consumers drop mappings that would shadow it.
+     */
+    public void recordPatternChanged(String merchantNormalized, Long categoryId, boolean active) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("eventType", MERCHANT_PATTERN_CHANGED);
+        fields.put("merchant", merchantNormalized);
+        fields.put("categoryId", String.valueOf(categoryId));
+        fields.put("active", String.valueOf(active));
+        record(fields);
+    }
+    
+    private void record(Map<String, String> fields) {
+        fields.put("occurredAt", Instant.now().toString());
+        try {
+            jdbcTemplate.update("INSERT INTO category_outbox (event_type, payload) VALUES (?, ?)",
+                fields.get("eventType"), objectMapper.writeValueAsString(fields));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize category event", e);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${events.outbox.poll-interval:1000}")
+    public void relay() {
+        try {
+            Integer relayed = transactionTemplate.execute(status -> relayBatch());
+            if (relayed != null && relayed > 0) {
+                log.debug("Relayed {} category events", relayed);
+            }
+        } catch (Exception e) {
+            log.error("Failed to relay category events", e);
+        }
+    }
+    
+    // Row locks serialize concurrent relays, so events reach the stream in event id order
+    private int relayBatch() {
+        List<OutboxRow> pending = jdbcTemplate.query(
+            "SELECT event_id, payload FROM category_outbox WHERE published_at IS NULL " +
+            "ORDER BY event_id LIMIT ? FOR UPDATE",
+            (rs, rowNum) -> new OutboxRow(rs.getLong("event_id"), rs.getString("payload")),
+            batchSize);
+        
+        List<Long> published = new ArrayList<>(pending.size());
+        for (OutboxRow row : pending) {
+            try {
+                eventPublisher.publish(objectMapper.readValue(row.payload(), new TypeReference<Map<String, String>>() { }));
+            } catch (Exception e) {
+                // This and the following rows stay unpublished and are retried on the next poll
+                log.warn("Failed to publish category event {}: {}", row.eventId(), e.getMessage());
+                break;
+            }
+            published.add(row.eventId());
+        }
+        
+        if (!published.isEmpty()) {
+            List<Object> args = new ArrayList<>(published.size() + 1);
+            args.add(Timestamp.valueOf(LocalDateTime.now()));
+            args.addAll(published);
+            jdbcTemplate.update("UPDATE category_outbox SET published_at = ? WHERE event_id IN (" +
+                String.join(", ", Collections.nCopies(published.size(), "?")) + ")", args.toArray());
+        }
+        return published.size();
+    }
+    
+    @Scheduled(cron = "${events.outbox.purge-cron:0 0 * * * *}")
+    public void purgePublished() {
+        int deleted = jdbcTemplate.update("DELETE FROM category_outbox WHERE published_at < ?",
+            Timestamp.valueOf(LocalDateTime.now().minus(retention)));
+        if (deleted > 0) {
+            log.info("Purged {} published category events", deleted);
+        }
+    }
+    
+    private record OutboxRow(long eventId, String payload) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.fincategorizer.category.exception;
+
+public class CategoryInUseException extends RuntimeException {
+    public CategoryInUseException(String message) {
+        super(message);
+    }
+}
@@ -11,7 +11,9 @@ import java.util.Optional;
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     
-    List<Category> findByUserIdOrUserIdIsNullOrderByCategoryName(Long userId);
+    List<Category> findByUserIdOrderByCategoryName(Long userId);
+    
+    List<Category> findByUserIdIsNullOrderByCategoryName();
     
     List<Category> findByCategoryType(CategoryType categoryType);
     
@@ -0,0 +1,102 @@
+package com.fincategorizer.category.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Category lists keyed by user id, serialized and as a {@link CategoryTree}, each
+ * tagged with the user's category version at the time it was built.
+ *
+ * Writes bump the version after their transaction commits, which invalidates the entry
+ * even if a concurrent read was still building it from the old rows. Versions come from
+ * one sequence, so a version that is evicted and recreated never matches an old entry.
+ * Entries also expire after a TTL to bound staleness when writes go to another instance.
+ */
+@Component
+public class CategoryListCache {
+
+    private final AtomicLong versionSequence = new AtomicLong();
+    private final Cache<Long, Long> versions;
+    private final Cache<Long, Entry> lists;
+
+    public CategoryListCache(MeterRegistry meterRegistry,
+                             @Value("${category-cache.max-size:10000}") long maxSize,
+                             @Value("${category-cache.ttl:10m}") Duration ttl) {
+        this.versions = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterAccess(ttl)
+            .build();
+        this.lists = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, lists, "category-lists");
+    }
+
+    /**
+     * Returns the cached list if it was built at the user's current version, otherwise
+     * builds and caches it.
+     */
+    public UserCategories get(Long userId, Supplier<UserCategories> loader) {
+        long version = currentVersion(userId);
+        Entry entry = lists.getIfPresent(userId);
+        if (entry != null && entry.version() == version) {
+            return entry.categories();
+        }
+        UserCategories categories = loader.get();
+        lists.put(userId, new Entry(version, categories));
+        return categories;
+    }
+
+    /**
+     * Bumps the user's version once the current transaction commits, or immediately
+     * when there is none.
+     */
+    public void invalidate(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump(userId);
+                }
+            });
+        } else {
+            bump(userId);
+        }
+    }
+
+    private long currentVersion(Long userId) {
+        return versions.get(userId, id -> versionSequence.incrementAndGet());
+    }
+
+    private void bump(Long userId) {
+        versions.put(userId, versionSequence.incrementAndGet());
+        lists.invalidate(userId);
+    }
+
+    /**
+     * A category list serialized to JSON, with a strong ETag computed from its bytes.
+     */
+    public record SerializedCategories(byte[] json, String etag) {
+    }
+
+    /**
+     * One user's categories, defaults included, in both cached forms.
+     */
+    public record UserCategories(SerializedCategories serialized, CategoryTree tree) {
+    }
+
+    private record Entry(long version, UserCategories categories) {
+    }
+}
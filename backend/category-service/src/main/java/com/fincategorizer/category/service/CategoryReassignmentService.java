@@ -0,0 +1,223 @@
+package com.fincategorizer.category.service;
+
+import com.fincategorizer.category.dto.CategoryReassignmentResponse;
+import com.fincategorizer.category.event.CategoryOutbox;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes a category after moving every row that references it to a target category.
+ *
+ * Rows are moved in the background by set-based UPDATEs over consecutive primary-key
+ * ranges of at most chunk-size rows, each committed on its own, so no lock is held for
+ * longer than one chunk. A final transaction moves rows assigned in the meantime,
+ * deletes the category and records the CATEGORY_DELETED event in the outbox.
+ * Interrupted jobs can simply be started again.
+ */
+@Service
+@Slf4j
+public class CategoryReassignmentService {
+
+    private static final String RUNNING = "RUNNING";
+    private static final String COMPLETED = "COMPLETED";
+    private static final String FAILED = "FAILED";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CategoryListCache categoryListCache;
+    private final CategoryOutbox outbox;
+    private final SimpleAsyncTaskExecutor executor;
+    private final Cache<String, Job> jobs;
+    private final Map<Long, Job> running = new ConcurrentHashMap<>();
+
+    @Value("${category-delete.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${category-delete.chunk-pause:0ms}")
+    private Duration chunkPause;
+
+    @Value("${category-delete.max-running:2}")
+    private int maxRunning;
+
+    public CategoryReassignmentService(JdbcTemplate jdbcTemplate,
+                                       TransactionTemplate transactionTemplate,
+                                       CategoryListCache categoryListCache,
+                                       CategoryOutbox outbox,
+                                       Environment environment,
+                                       @Value("${category-delete.job-retention:1h}") Duration jobRetention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.categoryListCache = categoryListCache;
+        this.outbox = outbox;
+        this.executor = new SimpleAsyncTaskExecutor("category-reassign-");
+        this.executor.setVirtualThreads(Threading.VIRTUAL.isActive(environment));
+        this.jobs = Caffeine.newBuilder()
+            .expireAfterWrite(jobRetention)
+            .build();
+    }
+
+    /**
+     * True if any transaction or training row references the category.
+     */
+    public boolean isInUse(Long categoryId) {
+        Boolean inUse = jdbcTemplate.queryForObject(
+            "SELECT EXISTS(SELECT 1 FROM transactions WHERE category_id = ?) " +
+            "OR EXISTS(SELECT 1 FROM model_training_data WHERE original_category_id = ? OR corrected_category_id = ?)",
+            Boolean.class, categoryId, categoryId, categoryId);
+        return Boolean.TRUE.equals(inUse);
+    }
+
+    /**
+     * Starts moving the category's rows to the target and deleting it. Returns the job
+     * already running for the category, if any. The caller checks ownership and target.
+     */
+    public CategoryReassignmentResponse start(Long categoryId, Long userId, Long targetCategoryId) {
+        Job existing = running.get(categoryId);
+        if (existing != null) {
+            return existing.toResponse();
+        }
+        if (running.size() >= maxRunning) {
+            throw new RuntimeException("Too many category deletions in progress, try again later");
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), categoryId, userId, targetCategoryId);
+        existing = running.putIfAbsent(categoryId, job);
+        if (existing != null) {
+            return existing.toResponse();
+        }
+        jobs.put(job.jobId, job);
+        log.info("Reassigning category {} of user {} to {} (job {})", categoryId, userId, targetCategoryId, job.jobId);
+        executor.execute(() -> run(job));
+        return job.toResponse();
+    }
+
+    /**
+     * Returns the job if it belongs to the user and has not expired.
+     */
+    public CategoryReassignmentResponse getJob(String jobId, Long userId) {
+        Job job = jobs.getIfPresent(jobId);
+        return job != null && job.userId.equals(userId) ? job.toResponse() : null;
+    }
+
+    private void run(Job job) {
+        try {
+            moveInChunks("transactions", "transaction_id", "category_id", job, job.transactionsMoved);
+            moveInChunks("model_training_data", "training_id", "original_category_id", job, job.trainingRowsMoved);
+            moveInChunks("model_training_data", "training_id", "corrected_category_id", job, job.trainingRowsMoved);
+
+            transactionTemplate.executeWithoutResult(status -> {
+                // Rows that were assigned to the category while the chunks ran
+                job.transactionsMoved.addAndGet(jdbcTemplate.update(
+                    "UPDATE transactions SET category_id = ? WHERE category_id = ?",
+                    job.targetCategoryId, job.categoryId));
+                job.trainingRowsMoved.addAndGet(jdbcTemplate.update(
+                    "UPDATE model_training_data SET original_category_id = ? WHERE original_category_id = ?",
+                    job.targetCategoryId, job.categoryId));
+                job.trainingRowsMoved.addAndGet(jdbcTemplate.update(
+                    "UPDATE model_training_data SET corrected_category_id = ? WHERE corrected_category_id = ?",
+                    job.targetCategoryId, job.categoryId));
+                jdbcTemplate.update("UPDATE user_merchant_overrides SET category_id = ? WHERE category_id = ?",
+                    job.targetCategoryId, job.categoryId);
+                jdbcTemplate.update("DELETE FROM categories WHERE category_id = ? AND user_id = ?",
+                    job.categoryId, job.userId);
+                outbox.recordDeleted(job.categoryId, job.userId, job.targetCategoryId);
+                categoryListCache.invalidate(job.userId);
+            });
+
+            job.finish(COMPLETED, null);
+            log.info("Deleted category {} after moving {} transactions and {} training rows to {} (job {})",
+                job.categoryId, job.transactionsMoved.get(), job.trainingRowsMoved.get(), job.targetCategoryId, job.jobId);
+        } catch (Exception e) {
+            log.error("Reassignment of category {} failed (job {})", job.categoryId, job.jobId, e);
+            job.finish(FAILED, e.getMessage());
+        } finally {
+            running.remove(job.categoryId, job);
+        }
+    }
+
+    /**
+     * Moves rows in consecutive primary-key ranges. Each range ends at the chunk-size'th
+     * matching id, found through the index on the category column, and is updated by
+     * one auto-committed statement.
+     */
+    private void moveInChunks(String table, String idColumn, String categoryColumn, Job job, AtomicLong moved)
+            throws InterruptedException {
+        String boundSql = "SELECT " + idColumn + " FROM " + table +
+            " WHERE " + categoryColumn + " = ? AND " + idColumn + " > ?" +
+            " ORDER BY " + idColumn + " LIMIT 1 OFFSET ?";
+        String updateSql = "UPDATE " + table + " SET " + categoryColumn + " = ?" +
+            " WHERE " + categoryColumn + " = ? AND " + idColumn + " > ? AND " + idColumn + " <= ?";
+
+        long lowerExclusive = 0;
+        while (true) {
+            List<Long> bound = jdbcTemplate.queryForList(boundSql, Long.class,
+                job.categoryId, lowerExclusive, chunkSize - 1);
+            long upperInclusive = bound.isEmpty() ? Long.MAX_VALUE : bound.get(0);
+            moved.addAndGet(jdbcTemplate.update(updateSql,
+                job.targetCategoryId, job.categoryId, lowerExclusive, upperInclusive));
+            if (bound.isEmpty()) {
+                return;
+            }
+            lowerExclusive = upperInclusive;
+            if (!chunkPause.isZero()) {
+                Thread.sleep(chunkPause.toMillis());
+            }
+        }
+    }
+
+    private static final class Job {
+        private final String jobId;
+        private final Long categoryId;
+        private final Long userId;
+        private final Long targetCategoryId;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicLong transactionsMoved = new AtomicLong();
+        private final AtomicLong trainingRowsMoved = new AtomicLong();
+        private volatile String status = RUNNING;
+        private volatile String error;
+        private volatile LocalDateTime finishedAt;
+
+        private Job(String jobId, Long categoryId, Long userId, Long targetCategoryId) {
+            this.jobId = jobId;
+            this.categoryId = categoryId;
+            this.userId = userId;
+            this.targetCategoryId = targetCategoryId;
+        }
+
+        private void finish(String status, String error) {
+            this.error = error;
+            this.finishedAt = LocalDateTime.now();
+            this.status = status;
+        }
+
+        private CategoryReassignmentResponse toResponse() {
+            return CategoryReassignmentResponse.builder()
+                .jobId(jobId)
+                .categoryId(categoryId)
+                .targetCategoryId(targetCategoryId)
+                .status(status)
+                .transactionsMoved(transactionsMoved.get())
+                .trainingRowsMoved(trainingRowsMoved.get())
+                .error(error)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .build();
+        }
+    }
+}
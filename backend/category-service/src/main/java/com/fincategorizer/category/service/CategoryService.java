@@ -1,33 +1,111 @@
 package com.fincategorizer.category.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fincategorizer.category.dto.CategoryReassignmentResponse;
 import com.fincategorizer.category.dto.CategoryRequest;
 import com.fincategorizer.category.dto.CategoryResponse;
+import com.fincategorizer.category.dto.CategoryTreeResponse;
 import com.fincategorizer.category.exception.CategoryAlreadyExistsException;
+import com.fincategorizer.category.exception.CategoryInUseException;
 import com.fincategorizer.category.entity.Category;
 import com.fincategorizer.category.entity.CategoryType;
 import com.fincategorizer.category.repository.CategoryRepository;
+import com.fincategorizer.category.service.CategoryListCache.SerializedCategories;
+import com.fincategorizer.category.service.CategoryListCache.UserCategories;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CategoryService {
     
+    private static final Comparator<CategoryResponse> BY_NAME =
+        Comparator.comparing(CategoryResponse::getCategoryName, String.CASE_INSENSITIVE_ORDER);
+    
     private final CategoryRepository categoryRepository;
+    private final CategoryListCache categoryListCache;
+    private final CategoryReassignmentService reassignmentService;
+    private final ObjectMapper objectMapper;
+    
+    // Default categories are seeded by schema.sql and cannot be changed through the API,
+    // so they are loaded once and shared by every user's list
+    private volatile DefaultCategories defaultCategories;
+    
+    /**
+     * Returns the user's categories and the default categories sorted by name, serialized
+     * to JSON. Users without custom categories all share the default block.
+     */
+    public SerializedCategories getAllCategories(Long userId) {
+        return userCategories(userId).serialized();
+    }
+    
+    /**
+     * Returns the user's category hierarchy with the depth-first intervals used for
+     * subtree queries.
+     */
+    public CategoryTreeResponse getCategoryTree(Long userId) {
+        return CategoryTreeResponse.builder()
+            .nodes(userCategories(userId).tree().nodes().stream()
+                .map(node -> CategoryTreeResponse.Node.builder()
+                    .categoryId(node.categoryId())
+                    .categoryName(node.categoryName())
+                    .parentCategoryId(node.parentCategoryId())
+                    .depth(node.depth())
+                    .enter(node.enter())
+                    .exit(node.exit())
+                    .build())
+                .toList())
+            .build();
+    }
+    
+    private UserCategories userCategories(Long userId) {
+        return categoryListCache.get(userId, () -> loadCategories(userId));
+    }
     
-    @Transactional(readOnly = true)
-    public List<CategoryResponse> getAllCategories(Long userId) {
+    private UserCategories loadCategories(Long userId) {
         log.info("Fetching categories for user: {}", userId);
-        List<Category> categories = categoryRepository.findByUserIdOrUserIdIsNullOrderByCategoryName(userId);
-        return categories.stream()
-            .map(this::convertToResponse)
-            .collect(Collectors.toList());
+        DefaultCategories defaults = defaultCategories();
+        List<Category> custom = categoryRepository.findByUserIdOrderByCategoryName(userId);
+        if (custom.isEmpty()) {
+            return defaults.shared();
+        }
+        
+        List<CategoryResponse> categories = new ArrayList<>(defaults.categories().size() + custom.size());
+        categories.addAll(defaults.categories());
+        custom.forEach(category -> categories.add(convertToResponse(category)));
+        categories.sort(BY_NAME);
+        return new UserCategories(serialize(categories), CategoryTree.build(categories));
+    }
+    
+    private DefaultCategories defaultCategories() {
+        DefaultCategories defaults = defaultCategories;
+        if (defaults == null) {
+            List<CategoryResponse> categories = categoryRepository.findByUserIdIsNullOrderByCategoryName().stream()
+                .map(this::convertToResponse)
+                .toList();
+            defaults = new DefaultCategories(categories,
+                new UserCategories(serialize(categories), CategoryTree.build(categories)));
+            defaultCategories = defaults;
+        }
+        return defaults;
+    }
+    
+    private SerializedCategories serialize(List<CategoryResponse> categories) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(categories);
+            return new SerializedCategories(json, "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize categories", e);
+        }
     }
     
     @Transactional
@@ -38,6 +116,11 @@ public class CategoryService {
             throw new CategoryAlreadyExistsException("Category already exists: " + request.getCategoryName());
         }
         
+        if (request.getParentCategoryId() != null
+                && userCategories(userId).tree().get(request.getParentCategoryId()) == null) {
+            throw new RuntimeException("Parent category not found");
+        }
+        
         Category category = Category.builder()
             .userId(userId)
             .categoryName(request.getCategoryName())
@@ -48,6 +131,7 @@ public class CategoryService {
             .build();
         
         category = categoryRepository.save(category);
+        categoryListCache.invalidate(userId);
         return convertToResponse(category);
     }
     
@@ -62,12 +146,24 @@ public class CategoryService {
             throw new RuntimeException("Cannot modify default categories");
         }
         
+        Long parentId = request.getParentCategoryId();
+        if (parentId != null) {
+            CategoryTree tree = userCategories(userId).tree();
+            if (tree.get(parentId) == null) {
+                throw new RuntimeException("Parent category not found");
+            }
+            if (tree.contains(categoryId, parentId)) {
+                throw new RuntimeException("A category cannot be moved under itself or one of its subcategories");
+            }
+        }
+        
         category.setCategoryName(request.getCategoryName());
         category.setParentCategoryId(request.getParentCategoryId());
         category.setIcon(request.getIcon());
         category.setColor(request.getColor());
         
         category = categoryRepository.save(category);
+        categoryListCache.invalidate(userId);
         return convertToResponse(category);
     }
     
@@ -75,14 +171,41 @@ public class CategoryService {
     public void deleteCategory(Long categoryId, Long userId) {
         log.info("Deleting category: {} for user: {}", categoryId, userId);
         
+        Category category = findDeletableCategory(categoryId, userId);
+        if (reassignmentService.isInUse(categoryId)) {
+            throw new CategoryInUseException("Category is used by transactions, delete it with reassignTo to move them");
+        }
+        
+        categoryRepository.delete(category);
+        categoryListCache.invalidate(userId);
+    }
+    
+    /**
+     * Deletes the category in the background after moving its transactions to the target
+     * category, which may be a default category or another custom category of the user.
+     */
+    public CategoryReassignmentResponse deleteCategory(Long categoryId, Long userId, Long targetCategoryId) {
+        log.info("Deleting category: {} for user: {}, reassigning to: {}", categoryId, userId, targetCategoryId);
+        
+        findDeletableCategory(categoryId, userId);
+        if (targetCategoryId.equals(categoryId) || userCategories(userId).tree().get(targetCategoryId) == null) {
+            throw new RuntimeException("Target category not found");
+        }
+        return reassignmentService.start(categoryId, userId, targetCategoryId);
+    }
+    
+    public CategoryReassignmentResponse getReassignment(String jobId, Long userId) {
+        return reassignmentService.getJob(jobId, userId);
+    }
+    
+    private Category findDeletableCategory(Long categoryId, Long userId) {
         Category category = categoryRepository.findByCategoryIdAndUserId(categoryId, userId)
             .orElseThrow(() -> new RuntimeException("Category not found or unauthorized"));
         
         if (category.getCategoryType() == CategoryType.DEFAULT) {
             throw new RuntimeException("Cannot delete default categories");
         }
-        
-        categoryRepository.delete(category);
+        return category;
     }
     
     private CategoryResponse convertToResponse(Category category) {
@@ -96,4 +219,7 @@ public class CategoryService {
             .createdAt(category.getCreatedAt())
             .build();
     }
+    
+    private record DefaultCategories(List<CategoryResponse> categories, UserCategories shared) {
+    }
 }
@@ -0,0 +1,119 @@
+package com.fincategorizer.category.service;
+
+import com.fincategorizer.category.dto.CategoryResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable category hierarchy of one user, numbered by a depth-first (Euler tour)
+ * traversal. Every node covers the interval [enter, exit) of preorder positions, and
+ * its subtree is exactly the nodes whose enter falls in that interval. Subtree
+ * membership is therefore two comparisons, and a subtree is a contiguous slice.
+ *
+ * Categories whose parent is missing from the list become roots. Nodes on a parent
+ * cycle are attached under the first of them that is visited.
+ */
+public final class CategoryTree {
+
+    private final List<Node> nodes;
+    private final Map<Long, Node> byId;
+
+    private CategoryTree(List<Node> nodes) {
+        this.nodes = Collections.unmodifiableList(nodes);
+        this.byId = new HashMap<>(nodes.size() * 2);
+        nodes.forEach(node -> byId.put(node.categoryId(), node));
+    }
+
+    /**
+     * Builds the tree; siblings keep the order of the given list.
+     */
+    public static CategoryTree build(List<CategoryResponse> categories) {
+        Map<Long, CategoryResponse> byId = new LinkedHashMap<>();
+        categories.forEach(category -> byId.put(category.getCategoryId(), category));
+
+        Map<Long, List<CategoryResponse>> children = new HashMap<>();
+        List<CategoryResponse> roots = new ArrayList<>();
+        for (CategoryResponse category : categories) {
+            Long parentId = category.getParentCategoryId();
+            if (parentId == null || !byId.containsKey(parentId) || parentId.equals(category.getCategoryId())) {
+                roots.add(category);
+            } else {
+                children.computeIfAbsent(parentId, id -> new ArrayList<>()).add(category);
+            }
+        }
+
+        List<Node> nodes = new ArrayList<>(categories.size());
+        Set<Long> visited = new HashSet<>();
+        for (CategoryResponse root : roots) {
+            visit(root, null, 0, children, visited, nodes);
+        }
+        // Whatever is left sits on a cycle that no root leads to
+        for (CategoryResponse category : categories) {
+            if (!visited.contains(category.getCategoryId())) {
+                visit(category, null, 0, children, visited, nodes);
+            }
+        }
+        return new CategoryTree(nodes);
+    }
+
+    private static void visit(CategoryResponse category, Long parentId, int depth,
+                              Map<Long, List<CategoryResponse>> children, Set<Long> visited, List<Node> nodes) {
+        visited.add(category.getCategoryId());
+        int position = nodes.size();
+        nodes.add(null);
+        for (CategoryResponse child : children.getOrDefault(category.getCategoryId(), List.of())) {
+            if (!visited.contains(child.getCategoryId())) {
+                visit(child, category.getCategoryId(), depth + 1, children, visited, nodes);
+            }
+        }
+        nodes.set(position, new Node(category.getCategoryId(), category.getCategoryName(), parentId,
+            depth, position, nodes.size()));
+    }
+
+    /**
+     * Nodes in preorder.
+     */
+    public List<Node> nodes() {
+        return nodes;
+    }
+
+    public Node get(Long categoryId) {
+        return byId.get(categoryId);
+    }
+
+    /**
+     * True when categoryId is ancestorId itself or one of its descendants.
+     */
+    public boolean contains(Long ancestorId, Long categoryId) {
+        Node ancestor = byId.get(ancestorId);
+        Node node = byId.get(categoryId);
+        return ancestor != null && node != null && ancestor.covers(node);
+    }
+
+    /**
+     * The node and all of its descendants, in preorder.
+     */
+    public List<Node> subtree(Long categoryId) {
+        Node node = byId.get(categoryId);
+        return node == null ? List.of() : nodes.subList(node.enter(), node.exit());
+    }
+
+    /**
+     * A category with its position in the traversal. parentCategoryId is the parent in
+     * this tree, which is null for roots even if the stored parent is not.
+     */
+    public record Node(Long categoryId, String categoryName, Long parentCategoryId,
+                       int depth, int enter, int exit) {
+
+        public boolean covers(Node other) {
+            return enter <= other.enter && other.enter < exit;
+        }
+    }
+}
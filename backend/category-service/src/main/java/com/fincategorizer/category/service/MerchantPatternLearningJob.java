@@ -0,0 +1,273 @@
+package com.fincategorizer.category.service;
+
+import com.fincategorizer.category.event.CategoryOutbox;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Promotes user corrections into exact merchant patterns.
+ *
+ * Unprocessed rows of model_training_data are read in training_id order, one batch per
+ * transaction, and added to running per (merchant, user, category) totals in
+ * merchant_correction_counts before being marked processed. The touched merchants are
+ * then re-evaluated from their totals: the most corrected-to category becomes an active
+ * exact pattern once enough distinct users chose it and it holds a large enough share of
+ * the merchant's corrections; a learned pattern that no longer qualifies is deactivated.
+ * Each change records a MERCHANT_PATTERN_CHANGED event in the same transaction, so
+ * transaction-service drops the merchant's cached mapping, which it consults before
+ * learned patterns.
+ *
+ * Batches lock their rows with SKIP LOCKED and the totals of their merchants, so several
+ * instances can run the job at once.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MerchantPatternLearningJob {
+
+    private static final String LEARNED_REGION = "GLOBAL";
+    private static final String LEARNED_TYPE = "exact";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CategoryOutbox outbox;
+
+    @Value("${merchant-learning.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${merchant-learning.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    @Value("${merchant-learning.min-users:3}")
+    private int minUsers;
+
+    @Value("${merchant-learning.min-share:0.8}")
+    private double minShare;
+
+    @Value("${merchant-learning.max-confidence:0.95}")
+    private double maxConfidence;
+
+    @Scheduled(fixedDelayString = "${merchant-learning.interval:300000}",
+               initialDelayString = "${merchant-learning.initial-delay:60000}")
+    public void learn() {
+        long afterId = 0;
+        int corrections = 0;
+        int promoted = 0;
+        int deactivated = 0;
+        try {
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                long from = afterId;
+                BatchResult result = transactionTemplate.execute(status -> processBatch(from));
+                if (result == null || result.corrections() == 0) {
+                    break;
+                }
+                afterId = result.lastTrainingId();
+                corrections += result.corrections();
+                promoted += result.promoted();
+                deactivated += result.deactivated();
+            }
+        } catch (Exception e) {
+            // The failed batch was rolled back and is picked up by the next run
+            log.error("Merchant pattern learning failed after training id {}", afterId, e);
+        }
+        if (corrections > 0) {
+            log.info("Processed {} corrections: {} merchant patterns promoted, {} deactivated",
+                corrections, promoted, deactivated);
+        }
+    }
+
+    private BatchResult processBatch(long afterId) {
+        List<Correction> batch = jdbcTemplate.query(
+            "SELECT d.training_id, d.user_id, d.corrected_category_id, d.correction_date, t.merchant_normalized " +
+            "FROM model_training_data d JOIN transactions t ON t.transaction_id = d.transaction_id " +
+            "WHERE d.is_processed = FALSE AND d.training_id > ? " +
+            "ORDER BY d.training_id LIMIT ? " +
+            "FOR UPDATE OF d SKIP LOCKED",
+            (rs, rowNum) -> new Correction(
+                rs.getLong("training_id"),
+                rs.getString("merchant_normalized"),
+                rs.getLong("user_id"),
+                rs.getLong("corrected_category_id"),
+                rs.getTimestamp("correction_date")),
+            afterId, batchSize);
+        if (batch.isEmpty()) {
+            return new BatchResult(afterId, 0, 0, 0);
+        }
+
+        addToTotals(batch);
+
+        List<Long> trainingIds = batch.stream().map(Correction::trainingId).toList();
+        jdbcTemplate.update("UPDATE model_training_data SET is_processed = TRUE WHERE training_id IN (" +
+            placeholders(trainingIds.size()) + ")", trainingIds.toArray());
+
+        Set<String> merchants = new HashSet<>();
+        batch.forEach(correction -> merchants.add(correction.merchant()));
+        int[] changes = reevaluate(merchants);
+
+        return new BatchResult(trainingIds.get(trainingIds.size() - 1), batch.size(), changes[0], changes[1]);
+    }
+
+    private void addToTotals(List<Correction> batch) {
+        Map<CountKey, BatchTotal> totals = new LinkedHashMap<>();
+        for (Correction correction : batch) {
+            totals.merge(new CountKey(correction.merchant(), correction.userId(), correction.categoryId()),
+                new BatchTotal(1, correction.correctedAt()), BatchTotal::plus);
+        }
+
+        List<Object[]> rows = new ArrayList<>(totals.size());
+        totals.forEach((key, total) -> rows.add(new Object[] {
+            key.merchant(), key.userId(), key.categoryId(), total.count(), total.lastCorrected()
+        }));
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO merchant_correction_counts " +
+            "(merchant_normalized, user_id, category_id, correction_count, last_corrected) VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE correction_count = correction_count + VALUES(correction_count), " +
+            "last_corrected = GREATEST(COALESCE(last_corrected, VALUES(last_corrected)), VALUES(last_corrected))",
+            rows);
+    }
+
+    /**
+     * Re-decides the learned pattern of each merchant from its totals. Returns the number
+     * of patterns promoted (inserted or changed) and deactivated.
+     */
+    private int[] reevaluate(Collection<String> merchants) {
+        Object[] args = merchants.toArray();
+        Map<String, MerchantTotals> totals = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT merchant_normalized, user_id, category_id, correction_count FROM merchant_correction_counts " +
+            "WHERE merchant_normalized IN (" + placeholders(args.length) + ") FOR UPDATE",
+            rs -> {
+                totals.computeIfAbsent(rs.getString("merchant_normalized"), m -> new MerchantTotals())
+                    .add(rs.getLong("category_id"), rs.getLong("user_id"), rs.getInt("correction_count"));
+            },
+            args);
+
+        Map<String, LearnedPattern> existing = new HashMap<>();
+        Object[] patternArgs = new Object[args.length + 2];
+        System.arraycopy(args, 0, patternArgs, 0, args.length);
+        patternArgs[args.length] = LEARNED_REGION;
+        patternArgs[args.length + 1] = LEARNED_TYPE;
+        jdbcTemplate.query(
+            "SELECT pattern_id, merchant_pattern, category_id, confidence, is_active FROM merchant_patterns " +
+            "WHERE merchant_pattern IN (" + placeholders(args.length) + ") AND region = ? AND pattern_type = ?",
+            rs -> {
+                existing.put(rs.getString("merchant_pattern"), new LearnedPattern(
+                    rs.getLong("pattern_id"), rs.getLong("category_id"),
+                    rs.getBigDecimal("confidence"), rs.getBoolean("is_active")));
+            },
+            patternArgs);
+
+        int promoted = 0;
+        int deactivated = 0;
+        for (String merchant : merchants) {
+            MerchantTotals merchantTotals = totals.getOrDefault(merchant, new MerchantTotals());
+            LearnedPattern pattern = existing.get(merchant);
+            Long categoryId = merchantTotals.topCategory();
+            boolean qualifies = categoryId != null
+                && merchantTotals.users(categoryId) >= minUsers
+                && merchantTotals.share(categoryId) >= minShare;
+
+            if (qualifies) {
+                BigDecimal confidence = BigDecimal.valueOf(Math.min(merchantTotals.share(categoryId), maxConfidence))
+                    .setScale(3, RoundingMode.HALF_UP);
+                if (pattern == null) {
+                    jdbcTemplate.update(
+                        "INSERT INTO merchant_patterns " +
+                        "(merchant_pattern, category_id, region, confidence, pattern_type, usage_count, is_active) " +
+                        "VALUES (?, ?, ?, ?, ?, 0, TRUE)",
+                        merchant, categoryId, LEARNED_REGION, confidence, LEARNED_TYPE);
+                    outbox.recordPatternChanged(merchant, categoryId, true);
+                    promoted++;
+                } else if (!pattern.active() || !pattern.categoryId().equals(categoryId)
+                        || pattern.confidence().compareTo(confidence) != 0) {
+                    jdbcTemplate.update(
+                        "UPDATE merchant_patterns SET category_id = ?, confidence = ?, is_active = TRUE WHERE pattern_id = ?",
+                        categoryId, confidence, pattern.patternId());
+                    outbox.recordPatternChanged(merchant, categoryId, true);
+                    promoted++;
+                }
+            } else if (pattern != null && pattern.active()) {
+                jdbcTemplate.update("UPDATE merchant_patterns SET is_active = FALSE WHERE pattern_id = ?",
+                    pattern.patternId());
+                outbox.recordPatternChanged(merchant, pattern.categoryId(), false);
+                deactivated++;
+            }
+        }
+        return new int[] {promoted, deactivated};
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    /**
+     * Correction totals of one merchant, per category.
+     */
+    private static final class MerchantTotals {
+
+        private final Map<Long, Integer> corrections = new HashMap<>();
+        private final Map<Long, Integer> users = new HashMap<>();
+        private int total;
+
+        void add(Long categoryId, Long userId, int count) {
+            corrections.merge(categoryId, count, Integer::sum);
+            users.merge(categoryId, 1, Integer::sum);
+            total += count;
+        }
+
+        Long topCategory() {
+            return corrections.entrySet().stream()
+                .max(Map.Entry.<Long, Integer>comparingByValue()
+                    .thenComparing(entry -> users.get(entry.getKey())))
+                .map(Map.Entry::getKey)
+                .orElse(null);
+        }
+
+        int users(Long categoryId) {
+            return users.getOrDefault(categoryId, 0);
+        }
+
+        double share(Long categoryId) {
+            return total == 0 ? 0 : corrections.getOrDefault(categoryId, 0) / (double) total;
+        }
+    }
+
+    private record Correction(long trainingId, String merchant, long userId, long categoryId, Timestamp correctedAt) {
+    }
+
+    private record CountKey(String merchant, long userId, long categoryId) {
+    }
+
+    private record BatchTotal(int count, Timestamp lastCorrected) {
+
+        BatchTotal plus(BatchTotal other) {
+            Timestamp last = lastCorrected == null || (other.lastCorrected != null && other.lastCorrected.after(lastCorrected))
+                ? other.lastCorrected : lastCorrected;
+            return new BatchTotal(count + other.count, last);
+        }
+    }
+
+    private record LearnedPattern(Long patternId, Long categoryId, BigDecimal confidence, boolean active) {
+    }
+
+    private record BatchResult(long lastTrainingId, int corrections, int promoted, int deactivated) {
+    }
+}
@@ -0,0 +1,102 @@
+package com.fincategorizer.category.service;
+
+import com.fincategorizer.category.dto.CategoryResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CategoryTreeTest {
+
+    @Test
+    void numbersNodesInPreorderWithSubtreeIntervals() {
+        CategoryTree tree = CategoryTree.build(List.of(
+            category(1L, "Food", null),
+            category(2L, "Groceries", 1L),
+            category(3L, "Restaurants", 1L),
+            category(4L, "Fast Food", 3L),
+            category(5L, "Transport", null)));
+
+        assertThat(tree.nodes()).extracting(CategoryTree.Node::categoryId).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(tree.get(1L)).isEqualTo(new CategoryTree.Node(1L, "Food", null, 0, 0, 4));
+        assertThat(tree.get(3L)).isEqualTo(new CategoryTree.Node(3L, "Restaurants", 1L, 1, 2, 4));
+        assertThat(tree.get(4L).depth()).isEqualTo(2);
+        assertThat(tree.get(5L)).isEqualTo(new CategoryTree.Node(5L, "Transport", null, 0, 4, 5));
+    }
+
+    @Test
+    void answersSubtreeMembershipAndSlices() {
+        CategoryTree tree = CategoryTree.build(List.of(
+            category(1L, "Food", null),
+            category(2L, "Groceries", 1L),
+            category(3L, "Restaurants", 1L),
+            category(4L, "Fast Food", 3L),
+            category(5L, "Transport", null)));
+
+        assertThat(tree.contains(1L, 4L)).isTrue();
+        assertThat(tree.contains(1L, 1L)).isTrue();
+        assertThat(tree.contains(3L, 2L)).isFalse();
+        assertThat(tree.contains(4L, 1L)).isFalse();
+        assertThat(tree.contains(1L, 99L)).isFalse();
+        assertThat(tree.subtree(3L)).extracting(CategoryTree.Node::categoryId).containsExactly(3L, 4L);
+        assertThat(tree.subtree(99L)).isEmpty();
+    }
+
+    @Test
+    void keepsSiblingOrderOfTheInput() {
+        CategoryTree tree = CategoryTree.build(List.of(
+            category(3L, "Restaurants", 1L),
+            category(1L, "Food", null),
+            category(2L, "Groceries", 1L)));
+
+        assertThat(tree.nodes()).extracting(CategoryTree.Node::categoryId).containsExactly(1L, 3L, 2L);
+    }
+
+    @Test
+    void makesCategoriesWithMissingOrOwnParentRoots() {
+        CategoryTree tree = CategoryTree.build(List.of(
+            category(1L, "Food", null),
+            category(2L, "Orphan", 42L),
+            category(3L, "Self", 3L),
+            category(4L, "Orphan Child", 2L)));
+
+        assertThat(tree.get(2L).parentCategoryId()).isNull();
+        assertThat(tree.get(2L).depth()).isZero();
+        assertThat(tree.get(3L).parentCategoryId()).isNull();
+        assertThat(tree.subtree(2L)).extracting(CategoryTree.Node::categoryId).containsExactly(2L, 4L);
+    }
+
+    @Test
+    void attachesParentCycleUnderFirstVisitedNode() {
+        CategoryTree tree = CategoryTree.build(List.of(
+            category(1L, "Food", null),
+            category(2L, "A", 3L),
+            category(3L, "B", 4L),
+            category(4L, "C", 2L)));
+
+        assertThat(tree.nodes()).hasSize(4);
+        assertThat(tree.nodes()).extracting(CategoryTree.Node::categoryId).containsExactly(1L, 2L, 4L, 3L);
+        assertThat(tree.get(2L).parentCategoryId()).isNull();
+        assertThat(tree.get(4L).parentCategoryId()).isEqualTo(2L);
+        assertThat(tree.get(3L).parentCategoryId()).isEqualTo(4L);
+        assertThat(tree.contains(2L, 3L)).isTrue();
+        assertThat(tree.contains(3L, 2L)).isFalse();
+    }
+
+    @Test
+    void buildsEmptyTree() {
+        CategoryTree tree = CategoryTree.build(List.of());
+
+        assertThat(tree.nodes()).isEmpty();
+        assertThat(tree.get(1L)).isNull();
+    }
+
+    private static CategoryResponse category(Long id, String name, Long parentId) {
+        CategoryResponse category = new CategoryResponse();
+        category.setCategoryId(id);
+        category.setCategoryName(name);
+        category.setParentCategoryId(parentId);
+        return category;
+    }
+}
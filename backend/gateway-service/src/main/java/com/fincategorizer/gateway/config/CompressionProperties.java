@@ -0,0 +1,35 @@
+package com.fincategorizer.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response compression settings for the gateway, with optional overrides per request
+ * path pattern. The first matching pattern wins.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.compression")
+public class CompressionProperties {
+
+    private boolean enabled = true;
+
+    private DataSize minResponseSize = DataSize.ofKilobytes(2);
+
+    private List<String> mimeTypes = new ArrayList<>(List.of("application/json", "text/plain", "text/csv"));
+
+    private Map<String, PathRule> paths = new LinkedHashMap<>();
+
+    @Data
+    public static class PathRule {
+
+        private Boolean enabled;
+
+        private DataSize minResponseSize;
+    }
+}
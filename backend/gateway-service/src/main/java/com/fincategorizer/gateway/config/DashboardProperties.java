@@ -0,0 +1,34 @@
+package com.fincategorizer.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Downstream locations and per-part timeouts for the dashboard aggregation endpoint.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.dashboard")
+public class DashboardProperties {
+
+    private String transactionServiceUrl = "http://localhost:8081";
+
+    private String categoryServiceUrl = "http://localhost:8082";
+
+    private String analyticsServiceUrl = "http://localhost:8083";
+
+    private Duration defaultTimeout = Duration.ofSeconds(3);
+
+    /**
+     * Timeout overrides keyed by part name (accuracy, categoryDistribution, trends,
+     * recentTransactions, categories).
+     */
+    private Map<String, Duration> timeouts = new LinkedHashMap<>();
+
+    public Duration timeoutFor(String part) {
+        return timeouts.getOrDefault(part, defaultTimeout);
+    }
+}
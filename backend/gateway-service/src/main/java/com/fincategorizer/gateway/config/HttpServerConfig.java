@@ -0,0 +1,112 @@
+package com.fincategorizer.gateway.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.PathContainer;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.util.List;
+import java.util.function.BiPredicate;
+
+/**
+ * Netty server tuning for client-facing traffic.
+ *
+ * Compression is negotiated from the client's Accept-Encoding: gzip and deflate always,
+ * and brotli when brotli4j with a matching native library is on the classpath (see the
+ * {@code brotli} Maven profile).
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(CompressionProperties.class)
+public class HttpServerConfig {
+
+    @Bean
+    public NettyServerCustomizer compressionCustomizer(CompressionProperties properties) {
+        if (!properties.isEnabled()) {
+            return httpServer -> httpServer;
+        }
+        CompressionPredicate predicate = new CompressionPredicate(properties);
+        log.info("Response compression enabled for {} (min {} bytes, {} path overrides)",
+                properties.getMimeTypes(), properties.getMinResponseSize().toBytes(), properties.getPaths().size());
+        return httpServer -> httpServer.compress(predicate);
+    }
+
+    /**
+     * Compresses responses with a compressible content type whose declared length, if
+     * any, reaches the threshold for the request path.
+     */
+    static class CompressionPredicate implements BiPredicate<HttpServerRequest, HttpServerResponse> {
+
+        private final List<MimeType> mimeTypes;
+        private final List<PathOverride> overrides;
+        private final long defaultMinSize;
+
+        CompressionPredicate(CompressionProperties properties) {
+            PathPatternParser parser = PathPatternParser.defaultInstance;
+            this.mimeTypes = properties.getMimeTypes().stream()
+                    .map(MimeTypeUtils::parseMimeType)
+                    .toList();
+            this.defaultMinSize = properties.getMinResponseSize().toBytes();
+            this.overrides = properties.getPaths().entrySet().stream()
+                    .map(entry -> new PathOverride(parser.parse(entry.getKey()),
+                            entry.getValue().getEnabled() == null || entry.getValue().getEnabled(),
+                            entry.getValue().getMinResponseSize() != null
+                                    ? entry.getValue().getMinResponseSize().toBytes()
+                                    : defaultMinSize))
+                    .toList();
+        }
+
+        @Override
+        public boolean test(HttpServerRequest request, HttpServerResponse response) {
+            boolean enabled = true;
+            long minSize = defaultMinSize;
+            PathContainer path = PathContainer.parsePath(request.fullPath());
+            for (PathOverride override : overrides) {
+                if (override.pattern().matches(path)) {
+                    enabled = override.enabled();
+                    minSize = override.minSize();
+                    break;
+                }
+            }
+            if (!enabled) {
+                return false;
+            }
+
+            String contentType = response.responseHeaders().get(HttpHeaders.CONTENT_TYPE);
+            if (contentType == null || !isCompressible(contentType)) {
+                return false;
+            }
+            String contentLength = response.responseHeaders().get(HttpHeaders.CONTENT_LENGTH);
+            if (contentLength != null) {
+                try {
+                    return Long.parseLong(contentLength) >= minSize;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+            // Streamed (chunked) responses are usually large listings
+            return true;
+        }
+
+        private boolean isCompressible(String contentType) {
+            try {
+                MimeType mimeType = MimeTypeUtils.parseMimeType(contentType);
+                return mimeTypes.stream().anyMatch(candidate -> candidate.isCompatibleWith(mimeType));
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        }
+    }
+
+    private record PathOverride(PathPattern pattern, boolean enabled, long minSize) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.fincategorizer.gateway.config;
+
+import com.fincategorizer.gateway.entity.User;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.r2dbc.mapping.event.BeforeConvertCallback;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * R2DBC has no JPA lifecycle annotations, so the defaults previously applied by
+ * {@code @PrePersist}/{@code @PreUpdate} on {@link User} are applied here.
+ */
+@Configuration
+public class R2dbcConfig {
+
+    @Bean
+    public BeforeConvertCallback<User> userDefaultsCallback() {
+        return (user, table) -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (user.getId() == null) {
+                user.setCreatedAt(now);
+                if (user.getIsActive() == null) {
+                    user.setIsActive(true);
+                }
+                if (user.getOauthProvider() == null) {
+                    user.setOauthProvider("local");
+                }
+            }
+            user.setUpdatedAt(now);
+            return Mono.just(user);
+        };
+    }
+}
@@ -4,6 +4,7 @@ import com.fincategorizer.gateway.dto.LoginRequest;
 import com.fincategorizer.gateway.dto.LoginResponse;
 import com.fincategorizer.gateway.dto.RegisterRequest;
 import com.fincategorizer.gateway.service.AuthService;
+import com.fincategorizer.gateway.service.PasswordHashingService.PasswordHashingRejectedException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -31,6 +32,10 @@ public class AuthController {
         log.info("Login request for email: {}", request.getEmail());
         return authService.login(request)
                 .map(ResponseEntity::ok)
+                .onErrorResume(PasswordHashingRejectedException.class, e -> {
+                    log.warn("Login rejected for email: {}: {}", request.getEmail(), e.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build());
+                })
                 .onErrorResume(e -> {
                     log.error("Login failed for email: {}", request.getEmail(), e);
                     return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
@@ -42,6 +47,10 @@ public class AuthController {
         log.info("Registration request for email: {}", request.getEmail());
         return authService.register(request)
                 .map(ResponseEntity::ok)
+                .onErrorResume(PasswordHashingRejectedException.class, e -> {
+                    log.warn("Registration rejected for email: {}: {}", request.getEmail(), e.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build());
+                })
                 .onErrorResume(e -> {
                     log.error("Registration failed for email: {}", request.getEmail(), e);
                     return Mono.just(ResponseEntity.badRequest().build());
@@ -51,7 +60,9 @@ public class AuthController {
     @PostMapping("/logout")
     public Mono<ResponseEntity<Void>> logout(@RequestHeader("Authorization") String token) {
         log.info("Logout request");
-        return Mono.just(ResponseEntity.ok().build());
+        String jwt = token.replace("Bearer ", "");
+        return authService.logout(jwt)
+                .thenReturn(ResponseEntity.ok().<Void>build());
     }
 
     @GetMapping("/me")
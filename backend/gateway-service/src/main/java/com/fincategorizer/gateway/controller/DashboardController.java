@@ -0,0 +1,59 @@
+package com.fincategorizer.gateway.controller;
+
+import com.fincategorizer.gateway.dto.DashboardResponse;
+import com.fincategorizer.gateway.ratelimit.HierarchicalRateLimiter;
+import com.fincategorizer.gateway.security.JwtUtil;
+import com.fincategorizer.gateway.service.DashboardService;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+/**
+ * Dashboard Controller
+ * Serves the dashboard data in one call instead of one proxied call per widget
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/dashboard")
+@RequiredArgsConstructor
+public class DashboardController {
+
+    private static final String RATE_LIMIT_ID = "dashboard";
+
+    private final DashboardService dashboardService;
+    private final HierarchicalRateLimiter rateLimiter;
+
+    @GetMapping
+    public Mono<ResponseEntity<DashboardResponse>> getDashboard(
+            ServerWebExchange exchange,
+            @RequestParam(defaultValue = "30") int trendDays,
+            @RequestParam(defaultValue = "100") int transactionCount,
+            @RequestParam(required = false) Set<String> parts) {
+        Set<String> requested = parts != null && !parts.isEmpty() ? parts : DashboardService.PARTS;
+        if (!DashboardService.PARTS.containsAll(requested)) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        Claims claims = exchange.getAttribute(JwtUtil.CLAIMS_ATTRIBUTE);
+        Long userId = claims != null ? claims.get("userId", Long.class) : null;
+        if (userId == null) {
+            return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+        }
+        log.info("GET /api/dashboard - userId: {}, parts: {}", userId, requested);
+
+        return rateLimiter.isAllowed(RATE_LIMIT_ID, "user:" + userId)
+                .flatMap(response -> response.isAllowed()
+                        ? dashboardService.getDashboard(userId, requested, trendDays, transactionCount)
+                                .map(ResponseEntity::ok)
+                        : Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build()));
+    }
+}
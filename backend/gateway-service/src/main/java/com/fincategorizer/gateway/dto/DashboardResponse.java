@@ -0,0 +1,27 @@
+package com.fincategorizer.gateway.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Combined dashboard payload. Each part is the downstream response body as-is, or null
+ * when that call failed or timed out; {@code errors} then holds the reason per part.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardResponse {
+    private JsonNode accuracy;
+    private JsonNode categoryDistribution;
+    private JsonNode trends;
+    private JsonNode recentTransactions;
+    private JsonNode categories;
+    private boolean partial;
+    private Map<String, String> errors;
+}
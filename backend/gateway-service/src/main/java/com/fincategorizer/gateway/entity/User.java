@@ -1,15 +1,16 @@
 package com.fincategorizer.gateway.entity;
 
-import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
 
 import java.time.LocalDateTime;
 
-@Entity
-@Table(name = "users")
+@Table("users")
 @Data
 @Builder
 @NoArgsConstructor
@@ -17,51 +18,33 @@ import java.time.LocalDateTime;
 public class User {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    @Column(name = "user_id")
+    @Column("user_id")
     private Long id;
     
-    @Column(unique = true, nullable = false)
+    @Column("email")
     private String email;
     
-    @Column(name = "password_hash", nullable = false)
+    @Column("password_hash")
     private String password;
     
-    @Column(name = "full_name", nullable = false)
+    @Column("full_name")
     private String name;
     
-    @Column(name = "oauth_provider")
+    @Column("oauth_provider")
     private String oauthProvider;
     
-    @Column(name = "profile_picture_url")
+    @Column("profile_picture_url")
     private String profilePictureUrl;
     
-    @Column(name = "is_active")
+    @Column("is_active")
     private Boolean isActive;
     
-    @Column(name = "last_login")
+    @Column("last_login")
     private LocalDateTime lastLogin;
     
-    @Column(name = "created_at", nullable = false, updatable = false)
+    @Column("created_at")
     private LocalDateTime createdAt;
     
-    @Column(name = "updated_at")
+    @Column("updated_at")
     private LocalDateTime updatedAt;
-    
-    @PrePersist
-    protected void onCreate() {
-        createdAt = LocalDateTime.now();
-        updatedAt = LocalDateTime.now();
-        if (isActive == null) {
-            isActive = true;
-        }
-        if (oauthProvider == null) {
-            oauthProvider = "local";
-        }
-    }
-    
-    @PreUpdate
-    protected void onUpdate() {
-        updatedAt = LocalDateTime.now();
-    }
 }
@@ -1,6 +1,8 @@
 package com.fincategorizer.gateway.filter;
 
 import com.fincategorizer.gateway.security.JwtUtil;
+import com.fincategorizer.gateway.security.VerifiedTokenCache;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
@@ -11,12 +13,12 @@ import org.springframework.web.server.ServerWebExchange;
 @Component
 public class AddUserIdHeaderFilter extends AbstractGatewayFilterFactory<Object> {
 
-    private final JwtUtil jwtUtil;
+    private final VerifiedTokenCache verifiedTokenCache;
 
     @Autowired
-    public AddUserIdHeaderFilter(JwtUtil jwtUtil) {
+    public AddUserIdHeaderFilter(VerifiedTokenCache verifiedTokenCache) {
         super(Object.class);
-        this.jwtUtil = jwtUtil;
+        this.verifiedTokenCache = verifiedTokenCache;
     }
 
     @Override
@@ -26,8 +28,12 @@ public class AddUserIdHeaderFilter extends AbstractGatewayFilterFactory<Object>
             
             if (authHeader != null && authHeader.startsWith("Bearer ")) {
                 try {
-                    String token = authHeader.substring(7);
-                    Long userId = jwtUtil.extractUserId(token);
+                    // Reuse the claims verified by JwtAuthenticationFilter when available
+                    Claims claims = exchange.getAttribute(JwtUtil.CLAIMS_ATTRIBUTE);
+                    if (claims == null) {
+                        claims = verifiedTokenCache.verify(authHeader.substring(7)).claims();
+                    }
+                    Long userId = claims.get("userId", Long.class);
                     
                     if (userId != null) {
                         ServerWebExchange modifiedExchange = exchange.mutate()
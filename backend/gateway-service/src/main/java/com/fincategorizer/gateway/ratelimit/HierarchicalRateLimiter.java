@@ -0,0 +1,169 @@
+package com.fincategorizer.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.Refill;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Two-tier rate limiter for gateway routes.
+ *
+ * Every request is decided against a local, lock-free token bucket per route and key,
+ * so the request path never waits on Redis. Consumed tokens are pushed to a per-second
+ * Redis counter in the background, either periodically or as soon as the local bucket
+ * runs low; when the counter shows the key is over its limit across all gateway
+ * instances, the key is denied locally for the rest of that window. Global limits are
+ * therefore approximate, and Redis outages fall back to the local limit alone.
+ */
+@Slf4j
+@Primary
+@Component
+public class HierarchicalRateLimiter extends AbstractRateLimiter<HierarchicalRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "hierarchical-rate-limiter";
+
+    private static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    private static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    private static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+    private static final String REQUESTED_TOKENS_HEADER = "X-RateLimit-Requested-Tokens";
+
+    private static final Duration WINDOW = Duration.ofSeconds(1);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final Cache<String, LocalBucket> buckets;
+    private final Config defaultConfig = new Config();
+
+    @Value("${rate-limiter.sync-interval:250ms}")
+    private Duration syncInterval;
+
+    @Value("${rate-limiter.near-empty-ratio:0.1}")
+    private double nearEmptyRatio;
+
+    @Value("${rate-limiter.key-prefix:rate-limit:}")
+    private String keyPrefix;
+
+    public HierarchicalRateLimiter(ReactiveStringRedisTemplate redisTemplate,
+                                   ConfigurationService configurationService,
+                                   @Value("${rate-limiter.max-keys:100000}") long maxKeys,
+                                   @Value("${rate-limiter.idle-expiry:10m}") Duration idleExpiry) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.redisTemplate = redisTemplate;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleExpiry)
+                .build();
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        String key = routeId + ":" + id;
+        LocalBucket bucket = buckets.get(key, k -> new LocalBucket(config));
+
+        long now = System.currentTimeMillis();
+        boolean allowed = false;
+        long remaining = 0;
+        if (now >= bucket.blockedUntilMillis) {
+            ConsumptionProbe probe = bucket.tokens.tryConsumeAndReturnRemaining(config.getRequestedTokens());
+            allowed = probe.isConsumed();
+            remaining = probe.getRemainingTokens();
+            if (allowed) {
+                bucket.pending.add(config.getRequestedTokens());
+            }
+        }
+
+        if (!allowed
+                || remaining <= config.getBurstCapacity() * nearEmptyRatio
+                || now - bucket.lastSyncMillis >= syncInterval.toMillis()) {
+            sync(key, bucket, config, now);
+        }
+
+        return Mono.just(new Response(allowed, headers(config, remaining)));
+    }
+
+    /**
+     * Adds the tokens consumed locally since the last sync to the shared counter for
+     * the current window. Runs detached from the request; at most one sync per key is
+     * in flight.
+     */
+    private void sync(String key, LocalBucket bucket, Config config, long now) {
+        if (!bucket.syncing.compareAndSet(false, true)) {
+            return;
+        }
+        long delta = bucket.pending.sumThenReset();
+        long window = now / WINDOW.toMillis();
+        String redisKey = keyPrefix + key + ":" + window;
+        long windowLimit = Math.max(config.getBurstCapacity(), config.getReplenishRate() * WINDOW.toSeconds());
+
+        redisTemplate.opsForValue().increment(redisKey, delta)
+                .flatMap(count -> redisTemplate.expire(redisKey, WINDOW.multipliedBy(2)).thenReturn(count))
+                .doOnNext(count -> {
+                    if (count > windowLimit) {
+                        bucket.blockedUntilMillis = (window + 1) * WINDOW.toMillis();
+                    }
+                })
+                .doFinally(signal -> {
+                    bucket.lastSyncMillis = now;
+                    bucket.syncing.set(false);
+                })
+                .subscribe(count -> { }, e -> log.debug("Rate limit sync failed for {}: {}", key, e.getMessage()));
+    }
+
+    private Map<String, String> headers(Config config, long remaining) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put(REMAINING_HEADER, String.valueOf(remaining));
+        headers.put(REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()));
+        headers.put(BURST_CAPACITY_HEADER, String.valueOf(config.getBurstCapacity()));
+        headers.put(REQUESTED_TOKENS_HEADER, String.valueOf(config.getRequestedTokens()));
+        return headers;
+    }
+
+    private static final class LocalBucket {
+
+        private final Bucket tokens;
+        private final LongAdder pending = new LongAdder();
+        private final AtomicBoolean syncing = new AtomicBoolean();
+        private volatile long blockedUntilMillis;
+        private volatile long lastSyncMillis = System.currentTimeMillis();
+
+        private LocalBucket(Config config) {
+            this.tokens = Bucket.builder()
+                    .addLimit(Bandwidth.classic(config.getBurstCapacity(),
+                            Refill.greedy(config.getReplenishRate(), WINDOW)))
+                    .build();
+        }
+    }
+
+    @Data
+    @Validated
+    public static class Config {
+
+        @Min(1)
+        private int replenishRate = 100;
+
+        @Min(1)
+        private long burstCapacity = 120;
+
+        @Min(1)
+        private int requestedTokens = 1;
+    }
+}
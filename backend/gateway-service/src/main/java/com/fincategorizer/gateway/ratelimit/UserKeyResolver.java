@@ -0,0 +1,38 @@
+package com.fincategorizer.gateway.ratelimit;
+
+import com.fincategorizer.gateway.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Rate limit key for the authenticated user, taken from the {@code userId} claim that
+ * JwtAuthenticationFilter verified for this exchange. Requests without a verified token
+ * are keyed by client address instead.
+ */
+@Primary
+@Component
+public class UserKeyResolver implements KeyResolver {
+
+    @Override
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        Claims claims = exchange.getAttribute(JwtUtil.CLAIMS_ATTRIBUTE);
+        if (claims != null) {
+            Long userId = claims.get("userId", Long.class);
+            if (userId != null) {
+                return Mono.just("user:" + userId);
+            }
+        }
+
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        if (remoteAddress == null || remoteAddress.getAddress() == null) {
+            return Mono.empty();
+        }
+        return Mono.just("ip:" + remoteAddress.getAddress().getHostAddress());
+    }
+}
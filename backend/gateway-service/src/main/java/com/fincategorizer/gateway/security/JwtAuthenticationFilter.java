@@ -1,14 +1,9 @@
 package com.fincategorizer.gateway.security;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
@@ -16,16 +11,14 @@ import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
-import java.util.Collections;
-import java.util.List;
-
 @Component
 public class JwtAuthenticationFilter implements WebFilter {
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    public JwtAuthenticationFilter(VerifiedTokenCache verifiedTokenCache) {
+        this.verifiedTokenCache = verifiedTokenCache;
+    }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
@@ -47,8 +40,11 @@ public class JwtAuthenticationFilter implements WebFilter {
         String token = authHeader.substring(7);
 
         try {
-            // Validate and parse JWT
-            Authentication authentication = validateToken(token);
+            // Repeat tokens are served from the verified-token cache; the claims are shared with gateway filters
+            VerifiedTokenCache.VerifiedToken verified = verifiedTokenCache.verify(token);
+            exchange.getAttributes().put(JwtUtil.CLAIMS_ATTRIBUTE, verified.claims());
+            Authentication authentication = new UsernamePasswordAuthenticationToken(
+                    verified.claims().getSubject(), null, verified.authorities());
             
             // Set authentication in security context
             return chain.filter(exchange)
@@ -66,37 +62,4 @@ public class JwtAuthenticationFilter implements WebFilter {
                path.startsWith("/api/ml-service/docs") ||
                path.startsWith("/api/ml-service/openapi.json");
     }
-
-    private Authentication validateToken(String token) {
-        SecretKey key = getSigningKey();
-        
-        // JJWT 0.12.3 API - use parser() instead of parserBuilder()
-        Claims claims = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
-        String username = claims.getSubject();
-        
-        // Extract roles/authorities if present
-        @SuppressWarnings("unchecked")
-        List<String> roles = claims.get("roles", List.class);
-        
-        List<SimpleGrantedAuthority> authorities;
-        if (roles != null && !roles.isEmpty()) {
-            authorities = roles.stream()
-                    .map(SimpleGrantedAuthority::new)
-                    .toList();
-        } else {
-            authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
-        }
-
-        return new UsernamePasswordAuthenticationToken(username, null, authorities);
-    }
-
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
 }
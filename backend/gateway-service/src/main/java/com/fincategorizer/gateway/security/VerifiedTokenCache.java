@@ -0,0 +1,154 @@
+package com.fincategorizer.gateway.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounded cache of verified JWTs keyed by the SHA-256 digest of the raw token.
+ *
+ * A hit skips signature verification and claim decoding. Entries never outlive the
+ * token's {@code exp} claim, and {@link #revoke(String)} denies a token on this
+ * gateway instance until it would have expired anyway. The denylist is bounded by
+ * token expiry only, never by size.
+ */
+@Slf4j
+@Component
+public class VerifiedTokenCache {
+
+    private final JwtUtil jwtUtil;
+    private final Cache<String, VerifiedToken> tokens;
+    private final Cache<String, Long> revoked;
+    private final Counter revocations;
+
+    public VerifiedTokenCache(JwtUtil jwtUtil,
+                              MeterRegistry meterRegistry,
+                              @Value("${jwt.cache.max-size:10000}") long maxSize,
+                              @Value("${jwt.cache.max-ttl:15m}") Duration maxTtl) {
+        this.jwtUtil = jwtUtil;
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(untilExpiry(VerifiedToken::expiresAtMillis, maxTtl))
+                .recordStats()
+                .build();
+        // No size bound: evicting an entry would accept its token again before expiry
+        this.revoked = Caffeine.newBuilder()
+                .expireAfter(untilExpiry(Long::longValue, null))
+                .build();
+        this.revocations = Counter.builder("jwt.token.revocations")
+                .description("Tokens revoked before their expiry")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, tokens, "jwt.verified-tokens");
+    }
+
+    /**
+     * Returns the verified claims and authorities for a token, verifying it only on a
+     * cache miss. Throws the underlying JWT exception for invalid, expired or revoked
+     * tokens; failures are never cached.
+     */
+    public VerifiedToken verify(String token) {
+        String digest = digest(token);
+        if (revoked.getIfPresent(digest) != null) {
+            throw new RuntimeException("Token has been revoked");
+        }
+        return tokens.get(digest, key -> load(token));
+    }
+
+    /**
+     * Drops a token from the cache and rejects it on this instance until its expiry.
+     * Tokens that no longer verify are ignored since they are rejected anyway.
+     */
+    public void revoke(String token) {
+        String digest = digest(token);
+        VerifiedToken verified = tokens.getIfPresent(digest);
+        if (verified == null) {
+            try {
+                verified = load(token);
+            } catch (Exception e) {
+                log.debug("Ignoring revocation of invalid token: {}", e.getMessage());
+                return;
+            }
+        }
+        revoked.put(digest, verified.expiresAtMillis());
+        tokens.invalidate(digest);
+        revocations.increment();
+    }
+
+    private VerifiedToken load(String token) {
+        Claims claims = jwtUtil.parseClaims(token);
+        Date expiration = claims.getExpiration();
+        long expiresAt = expiration != null ? expiration.getTime() : Long.MAX_VALUE;
+        return new VerifiedToken(claims, authorities(claims), expiresAt);
+    }
+
+    private List<GrantedAuthority> authorities(Claims claims) {
+        @SuppressWarnings("unchecked")
+        List<String> roles = claims.get("roles", List.class);
+
+        if (roles == null || roles.isEmpty()) {
+            return List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        }
+        return roles.stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Expires each entry at its token's expiry, optionally capped by a maximum TTL.
+     */
+    private static <V> Expiry<String, V> untilExpiry(ToLongFunction<V> expiresAtMillis,
+                                                     Duration maxTtl) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(String key, V value, long currentTime) {
+                long remaining = expiresAtMillis.applyAsLong(value) - System.currentTimeMillis();
+                long nanos = remaining <= 0 ? 0 : TimeUnit.MILLISECONDS.toNanos(remaining);
+                return maxTtl != null ? Math.min(nanos, maxTtl.toNanos()) : nanos;
+            }
+
+            @Override
+            public long expireAfterUpdate(String key, V value, long currentTime, long currentDuration) {
+                return expireAfterCreate(key, value, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(String key, V value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    /**
+     * Claims and authorities of a token whose signature and expiry have been verified.
+     */
+    public record VerifiedToken(Claims claims, List<GrantedAuthority> authorities, long expiresAtMillis) {
+    }
+}
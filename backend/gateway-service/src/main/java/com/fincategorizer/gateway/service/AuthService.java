@@ -6,13 +6,11 @@ import com.fincategorizer.gateway.dto.RegisterRequest;
 import com.fincategorizer.gateway.entity.User;
 import com.fincategorizer.gateway.repository.UserRepository;
 import com.fincategorizer.gateway.security.JwtUtil;
+import com.fincategorizer.gateway.security.VerifiedTokenCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 @Slf4j
 @Service
@@ -20,83 +18,67 @@ import reactor.core.scheduler.Schedulers;
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtUtil jwtUtil;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final UserProfileCache userProfileCache;
 
-    @Transactional
     public Mono<LoginResponse> login(LoginRequest request) {
-        return Mono.fromCallable(() -> {
-            log.debug("Attempting login for email: {}", request.getEmail());
-            
-            User user = userRepository.findByEmail(request.getEmail())
-                    .orElseThrow(() -> new RuntimeException("Invalid credentials"));
-            
-            if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-                throw new RuntimeException("Invalid credentials");
-            }
-            
-            String token = jwtUtil.generateToken(user.getEmail(), user.getId());
-            String refreshToken = jwtUtil.generateRefreshToken(user.getEmail());
-            
-            return LoginResponse.builder()
-                    .token(token)
-                    .refreshToken(refreshToken)
-                    .tokenType("Bearer")
-                    .expiresIn(3600000L) // 1 hour
-                    .user(LoginResponse.UserInfo.builder()
-                            .id(user.getId())
-                            .email(user.getEmail())
-                            .name(user.getName())
-                            .build())
-                    .build();
-        }).subscribeOn(Schedulers.boundedElastic());
+        log.debug("Attempting login for email: {}", request.getEmail());
+        
+        return userRepository.findByEmail(request.getEmail())
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Invalid credentials")))
+                .flatMap(user -> passwordHashingService.matches(request.getPassword(), user.getPassword())
+                        .flatMap(matches -> matches
+                                ? Mono.just(toLoginResponse(user))
+                                : Mono.error(new RuntimeException("Invalid credentials"))));
     }
 
-    @Transactional
     public Mono<LoginResponse> register(RegisterRequest request) {
-        return Mono.fromCallable(() -> {
-            log.debug("Attempting registration for email: {}", request.getEmail());
-            
-            if (userRepository.existsByEmail(request.getEmail())) {
-                throw new RuntimeException("Email already exists");
-            }
-            
-            User user = User.builder()
-                    .email(request.getEmail())
-                    .password(passwordEncoder.encode(request.getPassword()))
-                    .name(request.getName())
-                    .build();
-            
-            user = userRepository.save(user);
-            
-            String token = jwtUtil.generateToken(user.getEmail(), user.getId());
-            String refreshToken = jwtUtil.generateRefreshToken(user.getEmail());
-            
-            return LoginResponse.builder()
-                    .token(token)
-                    .refreshToken(refreshToken)
-                    .tokenType("Bearer")
-                    .expiresIn(3600000L)
-                    .user(LoginResponse.UserInfo.builder()
-                            .id(user.getId())
-                            .email(user.getEmail())
-                            .name(user.getName())
-                            .build())
-                    .build();
-        }).subscribeOn(Schedulers.boundedElastic());
+        log.debug("Attempting registration for email: {}", request.getEmail());
+        
+        return userRepository.existsByEmail(request.getEmail())
+                .flatMap(exists -> exists
+                        ? Mono.<String>error(new RuntimeException("Email already exists"))
+                        : passwordHashingService.encode(request.getPassword()))
+                .flatMap(passwordHash -> userRepository.save(User.builder()
+                        .email(request.getEmail())
+                        .password(passwordHash)
+                        .name(request.getName())
+                        .build()))
+                .flatMap(user -> userProfileCache.evict(user.getId()).thenReturn(user))
+                .map(this::toLoginResponse);
+    }
+
+    private LoginResponse toLoginResponse(User user) {
+        String token = jwtUtil.generateToken(user.getEmail(), user.getId());
+        String refreshToken = jwtUtil.generateRefreshToken(user.getEmail());
+        
+        return LoginResponse.builder()
+                .token(token)
+                .refreshToken(refreshToken)
+                .tokenType("Bearer")
+                .expiresIn(3600000L) // 1 hour
+                .user(toUserInfo(user))
+                .build();
+    }
+
+    public Mono<Void> logout(String token) {
+        return Mono.fromRunnable(() -> verifiedTokenCache.revoke(token));
     }
 
     public Mono<LoginResponse.UserInfo> getCurrentUser(String token) {
-        return Mono.fromCallable(() -> {
-            String email = jwtUtil.extractUsername(token);
-            User user = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
-            return LoginResponse.UserInfo.builder()
-                    .id(user.getId())
-                    .email(user.getEmail())
-                    .name(user.getName())
-                    .build();
-        }).subscribeOn(Schedulers.boundedElastic());
+        return Mono.fromCallable(() -> verifiedTokenCache.verify(token).claims().get("userId", Long.class))
+                .flatMap(userId -> userProfileCache.get(userId, () -> userRepository.findById(userId)
+                        .map(this::toUserInfo)))
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("User not found")));
+    }
+
+    private LoginResponse.UserInfo toUserInfo(User user) {
+        return LoginResponse.UserInfo.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .name(user.getName())
+                .build();
     }
 }
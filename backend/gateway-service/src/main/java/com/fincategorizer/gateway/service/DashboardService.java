@@ -0,0 +1,158 @@
+package com.fincategorizer.gateway.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fincategorizer.gateway.config.DashboardProperties;
+import com.fincategorizer.gateway.dto.DashboardResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.util.UriBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Builds the dashboard in one round trip by calling analytics-, transaction- and
+ * category-service in parallel. Callers pick the parts they render. Every part has its
+ * own timeout; a failed part is reported in the response instead of failing the whole
+ * dashboard.
+ */
+@Slf4j
+@Service
+@EnableConfigurationProperties(DashboardProperties.class)
+public class DashboardService {
+
+    public static final String ACCURACY = "accuracy";
+    public static final String CATEGORY_DISTRIBUTION = "categoryDistribution";
+    public static final String TRENDS = "trends";
+    public static final String RECENT_TRANSACTIONS = "recentTransactions";
+    public static final String CATEGORIES = "categories";
+
+    public static final Set<String> PARTS =
+            Set.of(ACCURACY, CATEGORY_DISTRIBUTION, TRENDS, RECENT_TRANSACTIONS, CATEGORIES);
+
+    private final WebClient webClient;
+    private final DashboardProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public DashboardService(WebClient.Builder webClientBuilder,
+                            DashboardProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.webClient = webClientBuilder.build();
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Fetches the requested parts only (names from {@link #PARTS}); the others are null
+     * in the response and do not count as errors.
+     */
+    public Mono<DashboardResponse> getDashboard(Long userId, Set<String> requested,
+                                                int trendDays, int transactionCount) {
+        List<Mono<PartResult>> parts = new ArrayList<>();
+        if (requested.contains(ACCURACY)) {
+            parts.add(fetch(userId, ACCURACY, properties.getAnalyticsServiceUrl(),
+                    uri -> uri.path("/api/analytics/accuracy").build()));
+        }
+        if (requested.contains(CATEGORY_DISTRIBUTION)) {
+            parts.add(fetch(userId, CATEGORY_DISTRIBUTION, properties.getAnalyticsServiceUrl(),
+                    uri -> uri.path("/api/analytics/category-distribution").build()));
+        }
+        if (requested.contains(TRENDS)) {
+            parts.add(fetch(userId, TRENDS, properties.getAnalyticsServiceUrl(),
+                    uri -> uri.path("/api/analytics/trends").queryParam("days", trendDays).build()));
+        }
+        if (requested.contains(RECENT_TRANSACTIONS)) {
+            parts.add(fetch(userId, RECENT_TRANSACTIONS, properties.getTransactionServiceUrl(),
+                    uri -> uri.path("/api/transactions")
+                            .queryParam("page", 0)
+                            .queryParam("size", transactionCount)
+                            .build()));
+        }
+        if (requested.contains(CATEGORIES)) {
+            parts.add(fetch(userId, CATEGORIES, properties.getCategoryServiceUrl(),
+                    uri -> uri.path("/api/categories").build()));
+        }
+
+        return Flux.merge(parts)
+                .collectMap(PartResult::name)
+                .map(this::toResponse);
+    }
+
+    private Mono<PartResult> fetch(Long userId, String part, String baseUrl,
+                                   Function<UriBuilder, URI> uriFunction) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return webClient.get()
+                .uri(baseUrl, uriFunction)
+                .header("X-User-Id", String.valueOf(userId))
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .timeout(properties.timeoutFor(part))
+                .map(body -> PartResult.success(part, body))
+                .onErrorResume(e -> {
+                    log.warn("Dashboard part {} failed for user {}: {}", part, userId, e.toString());
+                    return Mono.just(PartResult.failure(part, describe(e)));
+                })
+                .defaultIfEmpty(PartResult.success(part, null))
+                .doOnNext(result -> sample.stop(Timer.builder("gateway.dashboard.part")
+                        .description("Latency of each dashboard fan-out call")
+                        .tag("part", part)
+                        .tag("outcome", result.error() == null ? "success" : "error")
+                        .register(meterRegistry)));
+    }
+
+    private DashboardResponse toResponse(Map<String, PartResult> results) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        results.values().stream()
+                .filter(result -> result.error() != null)
+                .forEach(result -> errors.put(result.name(), result.error()));
+
+        return DashboardResponse.builder()
+                .accuracy(body(results, ACCURACY))
+                .categoryDistribution(body(results, CATEGORY_DISTRIBUTION))
+                .trends(body(results, TRENDS))
+                .recentTransactions(body(results, RECENT_TRANSACTIONS))
+                .categories(body(results, CATEGORIES))
+                .partial(!errors.isEmpty())
+                .errors(errors)
+                .build();
+    }
+
+    private static JsonNode body(Map<String, PartResult> results, String part) {
+        PartResult result = results.get(part);
+        return result != null ? result.body() : null;
+    }
+
+    private String describe(Throwable e) {
+        if (e instanceof TimeoutException) {
+            return "timeout";
+        }
+        if (e instanceof WebClientResponseException responseException) {
+            return "status " + responseException.getStatusCode().value();
+        }
+        return "unavailable";
+    }
+
+    private record PartResult(String name, JsonNode body, String error) {
+
+        static PartResult success(String name, JsonNode body) {
+            return new PartResult(name, body, null);
+        }
+
+        static PartResult failure(String name, String error) {
+            return new PartResult(name, null, error);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.fincategorizer.gateway.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password hashing on its own CPU-sized scheduler so BCrypt never occupies event
+ * loop threads or shared schedulers. Work beyond the in-flight limit is rejected
+ * immediately with {@link PasswordHashingRejectedException} instead of queueing.
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final Scheduler scheduler;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${auth.password.threads:0}") int threads,
+                                  @Value("${auth.password.max-in-flight:0}") int maxInFlight) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.passwordEncoder = passwordEncoder;
+        this.scheduler = Schedulers.newParallel("password-hash", poolSize, true);
+        this.maxInFlight = maxInFlight > 0 ? maxInFlight : poolSize * 4;
+
+        this.encodeTimer = Timer.builder("auth.password.hash")
+                .description("Time spent hashing or verifying passwords")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("auth.password.hash")
+                .description("Time spent hashing or verifying passwords")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auth.password.rejected")
+                .description("Password hashing requests rejected by admission control")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.in-flight", inFlight, AtomicInteger::get)
+                .description("Password hashing requests running or queued")
+                .register(meterRegistry);
+
+        log.info("Password hashing scheduler started with {} threads, max {} in flight", poolSize, this.maxInFlight);
+    }
+
+    public Mono<String> encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public Mono<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    private <T> Mono<T> submit(Timer timer, Callable<T> work) {
+        return Mono.defer(() -> {
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                rejected.increment();
+                return Mono.error(new PasswordHashingRejectedException());
+            }
+            return Mono.fromCallable(() -> timer.recordCallable(work))
+                    .subscribeOn(scheduler)
+                    .doFinally(signal -> inFlight.decrementAndGet());
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.dispose();
+    }
+
+    /**
+     * Signals that too many password hashes are already in progress.
+     */
+    public static class PasswordHashingRejectedException extends RuntimeException {
+
+        public PasswordHashingRejectedException() {
+            super("Too many concurrent authentication requests");
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.fincategorizer.gateway.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fincategorizer.gateway.dto.LoginResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Two-level cache of {@link LoginResponse.UserInfo} keyed by user id: a bounded
+ * in-process near cache in front of a shared Redis entry.
+ *
+ * {@link #evict(Long)} removes both levels and broadcasts the id on the invalidation
+ * channel so every gateway instance drops its near-cache copy. Other services that
+ * update the users table can publish the user id on the same channel. Redis errors
+ * degrade to loading from the database.
+ */
+@Slf4j
+@Component
+public class UserProfileCache {
+
+    private static final String KEY_PREFIX = "user-profile:";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ReactiveRedisConnectionFactory connectionFactory;
+    private final ObjectMapper objectMapper;
+    private final Cache<Long, LoginResponse.UserInfo> nearCache;
+
+    @Value("${user-cache.redis.ttl:1h}")
+    private Duration redisTtl;
+
+    @Value("${user-cache.invalidation-channel:user-profile-evictions}")
+    private String invalidationChannel;
+
+    private Disposable invalidationSubscription;
+
+    public UserProfileCache(ReactiveStringRedisTemplate redisTemplate,
+                            ReactiveRedisConnectionFactory connectionFactory,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${user-cache.local.max-size:10000}") long maxSize,
+                            @Value("${user-cache.local.ttl:60s}") Duration localTtl) {
+        this.redisTemplate = redisTemplate;
+        this.connectionFactory = connectionFactory;
+        this.objectMapper = objectMapper;
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, nearCache, "user-profiles");
+    }
+
+    @PostConstruct
+    void subscribeToInvalidations() {
+        // The container connects on creation, so it is created inside the retried flux
+        invalidationSubscription = Flux.using(
+                        () -> new ReactiveRedisMessageListenerContainer(connectionFactory),
+                        container -> container.receive(ChannelTopic.of(invalidationChannel)),
+                        ReactiveRedisMessageListenerContainer::destroy)
+                .doOnError(e -> log.warn("User profile invalidation subscription failed: {}", e.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe(message -> {
+                    try {
+                        nearCache.invalidate(Long.valueOf(message.getMessage()));
+                    } catch (NumberFormatException e) {
+                        log.warn("Ignoring malformed user profile invalidation: {}", message.getMessage());
+                    }
+                });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (invalidationSubscription != null) {
+            invalidationSubscription.dispose();
+        }
+    }
+
+    /**
+     * Returns the cached profile, falling back to Redis and then to the loader. Loaded
+     * profiles are written to both levels.
+     */
+    public Mono<LoginResponse.UserInfo> get(Long userId, Supplier<Mono<LoginResponse.UserInfo>> loader) {
+        LoginResponse.UserInfo cached = nearCache.getIfPresent(userId);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+
+        String key = KEY_PREFIX + userId;
+        return redisTemplate.opsForValue().get(key)
+                .flatMap(this::deserialize)
+                .onErrorResume(e -> {
+                    log.debug("Redis read failed for {}: {}", key, e.getMessage());
+                    return Mono.empty();
+                })
+                .switchIfEmpty(Mono.defer(loader)
+                        .flatMap(userInfo -> writeRedis(key, userInfo).thenReturn(userInfo)))
+                .doOnNext(userInfo -> nearCache.put(userId, userInfo));
+    }
+
+    /**
+     * Drops the profile from Redis and from the near cache of every gateway instance.
+     */
+    public Mono<Void> evict(Long userId) {
+        nearCache.invalidate(userId);
+        return redisTemplate.delete(KEY_PREFIX + userId)
+                .then(redisTemplate.convertAndSend(invalidationChannel, String.valueOf(userId)))
+                .onErrorResume(e -> {
+                    log.warn("Failed to evict cached profile for user {}: {}", userId, e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Mono<Boolean> writeRedis(String key, LoginResponse.UserInfo userInfo) {
+        try {
+            return redisTemplate.opsForValue()
+                    .set(key, objectMapper.writeValueAsString(userInfo), redisTtl)
+                    .onErrorResume(e -> {
+                        log.debug("Redis write failed for {}: {}", key, e.getMessage());
+                        return Mono.just(false);
+                    });
+        } catch (JsonProcessingException e) {
+            return Mono.just(false);
+        }
+    }
+
+    private Mono<LoginResponse.UserInfo> deserialize(String json) {
+        try {
+            return Mono.just(objectMapper.readValue(json, LoginResponse.UserInfo.class));
+        } catch (JsonProcessingException e) {
+            return Mono.empty();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.fincategorizer.gateway.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HierarchicalRateLimiterTest {
+
+    private static final String ROUTE = "transactions";
+
+    private final ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ReactiveValueOperations<String, String> valueOperations = mock(ReactiveValueOperations.class);
+    private HierarchicalRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.expire(anyString(), any(Duration.class))).thenReturn(Mono.just(true));
+        when(valueOperations.increment(anyString(), anyLong())).thenAnswer(call -> Mono.just(call.getArgument(1, Long.class)));
+
+        rateLimiter = new HierarchicalRateLimiter(redisTemplate, mock(ConfigurationService.class), 1000, Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(rateLimiter, "syncInterval", Duration.ofHours(1));
+        ReflectionTestUtils.setField(rateLimiter, "nearEmptyRatio", 0.1);
+        ReflectionTestUtils.setField(rateLimiter, "keyPrefix", "rate-limit:");
+
+        HierarchicalRateLimiter.Config config = new HierarchicalRateLimiter.Config();
+        config.setReplenishRate(1);
+        config.setBurstCapacity(10);
+        rateLimiter.getConfig().put(ROUTE, config);
+    }
+
+    @Test
+    void decidesLocallyUntilTheBucketRunsLow() {
+        for (int i = 0; i < 8; i++) {
+            assertThat(allowed("user:1")).isTrue();
+        }
+        verify(valueOperations, never()).increment(anyString(), anyLong());
+
+        // Remaining tokens at 10% of the burst capacity trigger a sync of the consumed ones
+        assertThat(allowed("user:1")).isTrue();
+        verify(valueOperations).increment(any(), eq(9L));
+    }
+
+    @Test
+    void deniesOnceTheLocalBucketIsEmpty() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(allowed("user:1")).isTrue();
+        }
+
+        RateLimiter.Response denied = rateLimiter.isAllowed(ROUTE, "user:1").block();
+        assertThat(denied.isAllowed()).isFalse();
+        assertThat(denied.getHeaders())
+            .containsEntry("X-RateLimit-Remaining", "0")
+            .containsEntry("X-RateLimit-Burst-Capacity", "10")
+            .containsEntry("X-RateLimit-Replenish-Rate", "1");
+        assertThat(allowed("user:2")).isTrue();
+    }
+
+    @Test
+    void deniesKeyThatIsOverItsLimitAcrossInstances() {
+        awaitStartOfWindow();
+        // Other gateway instances already used the window
+        when(valueOperations.increment(anyString(), anyLong())).thenReturn(Mono.just(50L));
+        for (int i = 0; i < 9; i++) {
+            allowed("user:1");
+        }
+
+        assertThat(allowed("user:1")).isFalse();
+        assertThat(allowed("user:2")).isTrue();
+    }
+
+    @Test
+    void fallsBackToTheLocalLimitWhenRedisFails() {
+        when(valueOperations.increment(anyString(), anyLong())).thenReturn(Mono.error(new IllegalStateException("down")));
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(allowed("user:1")).isTrue();
+        }
+        assertThat(allowed("user:1")).isFalse();
+    }
+
+    @Test
+    void usesDefaultConfigForUnknownRoute() {
+        RateLimiter.Response response = rateLimiter.isAllowed("unknown", "user:1").block();
+
+        assertThat(response.isAllowed()).isTrue();
+        assertThat(response.getHeaders()).containsEntry("X-RateLimit-Burst-Capacity", "120");
+    }
+
+    private boolean allowed(String id) {
+        return rateLimiter.isAllowed(ROUTE, id).block().isAllowed();
+    }
+
+    // A global denial lasts until the end of the one-second window it was seen in
+    private static void awaitStartOfWindow() {
+        long intoWindow = System.currentTimeMillis() % 1000;
+        if (intoWindow > 500) {
+            try {
+                Thread.sleep(1000 - intoWindow);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.fincategorizer.gateway.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token verification before and after JwtUtil kept its key and parser. Before, every
+ * verification derived the key and built a parser, and a request verified its token twice
+ * (authentication filter, then the user id header filter); after, the filters share the
+ * claims of a single verification with the cached parser.
+ * <p>
+ * Not run by the test phase; run it with
+ * {@code mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ * "-Dexec.args=-cp %classpath org.openjdk.jmh.Main JwtUtilBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-of-at-least-256-bits-for-hs256";
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = JwtUtilTest.jwtUtil(SECRET, 3600000L);
+        token = jwtUtil.generateToken("user@example.com", 42L);
+    }
+
+    @Benchmark
+    public Claims parseWithNewParser() {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    @Benchmark
+    public Claims parseWithCachedParser() {
+        return jwtUtil.parseClaims(token);
+    }
+
+    @Benchmark
+    public void requestBefore(Blackhole blackhole) {
+        for (int i = 0; i < 2; i++) {
+            blackhole.consume(parseWithNewParser());
+        }
+    }
+}
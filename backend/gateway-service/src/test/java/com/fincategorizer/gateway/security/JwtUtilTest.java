@@ -0,0 +1,83 @@
+package com.fincategorizer.gateway.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "test-secret-key-of-at-least-256-bits-for-hs256";
+
+    private final JwtUtil jwtUtil = jwtUtil(SECRET, 3600000L);
+
+    @Test
+    void acceptsValidToken() {
+        String token = jwtUtil.generateToken("user@example.com", 42L);
+
+        assertThat(jwtUtil.validateToken(token)).isTrue();
+        assertThat(jwtUtil.parseClaims(token).getSubject()).isEqualTo("user@example.com");
+        assertThat(jwtUtil.extractUserId(token)).isEqualTo(42L);
+        assertThat(jwtUtil.extractUsername(token)).isEqualTo("user@example.com");
+    }
+
+    @Test
+    void reusesParserAcrossTokens() {
+        String first = jwtUtil.generateToken("first@example.com", 1L);
+        String second = jwtUtil.generateToken("second@example.com", 2L);
+
+        assertThat(jwtUtil.extractUserId(first)).isEqualTo(1L);
+        assertThat(jwtUtil.extractUserId(second)).isEqualTo(2L);
+        assertThat(jwtUtil.validateToken(jwtUtil.generateRefreshToken("first@example.com"))).isTrue();
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        String token = jwtUtil(SECRET, -60000L).generateToken("user@example.com", 42L);
+
+        assertThat(jwtUtil.validateToken(token)).isFalse();
+        assertThatThrownBy(() -> jwtUtil.parseClaims(token)).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void rejectsTokenSignedWithAnotherKey() {
+        String token = jwtUtil("another-secret-key-of-at-least-256-bits-hs256", 3600000L)
+                .generateToken("user@example.com", 42L);
+
+        assertThat(jwtUtil.validateToken(token)).isFalse();
+        assertThatThrownBy(() -> jwtUtil.parseClaims(token)).isInstanceOf(SignatureException.class);
+    }
+
+    @Test
+    void rejectsTamperedPayload() {
+        String token = jwtUtil.generateToken("user@example.com", 42L);
+        String forgedPayload = jwtUtil.generateToken("admin@example.com", 1L).split("\\.")[1];
+        String[] parts = token.split("\\.");
+        String tampered = parts[0] + "." + forgedPayload + "." + parts[2];
+
+        assertThat(jwtUtil.validateToken(tampered)).isFalse();
+        assertThatThrownBy(() -> jwtUtil.parseClaims(tampered)).isInstanceOf(SignatureException.class);
+    }
+
+    @Test
+    void rejectsTamperedSignature() {
+        String token = jwtUtil.generateToken("user@example.com", 42L);
+        int middle = token.lastIndexOf('.') + 10;
+        char replaced = token.charAt(middle) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, middle) + replaced + token.substring(middle + 1);
+
+        assertThat(jwtUtil.validateToken(tampered)).isFalse();
+    }
+
+    static JwtUtil jwtUtil(String secret, long expiration) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", secret);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", expiration);
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpiration", 7 * expiration);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+}
@@ -0,0 +1,82 @@
+package com.fincategorizer.gateway.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class VerifiedTokenCacheTest {
+
+    private static final String SECRET = "test-secret-key-of-at-least-256-bits-for-hs256";
+
+    private final JwtUtil jwtUtil = spy(JwtUtilTest.jwtUtil(SECRET, 3600000L));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(jwtUtil, meterRegistry, 2, Duration.ofMinutes(15));
+
+    @Test
+    void verifiesTokenOnceAndServesHitsFromCache() {
+        String token = jwtUtil.generateToken("user@example.com", 42L);
+
+        VerifiedTokenCache.VerifiedToken first = cache.verify(token);
+        VerifiedTokenCache.VerifiedToken second = cache.verify(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.claims().get("userId", Long.class)).isEqualTo(42L);
+        assertThat(first.authorities()).extracting(Object::toString).containsExactly("ROLE_USER");
+        assertThat(first.expiresAtMillis()).isGreaterThan(System.currentTimeMillis());
+        verify(jwtUtil, times(1)).parseClaims(anyString());
+    }
+
+    @Test
+    void doesNotCacheFailures() {
+        String expired = JwtUtilTest.jwtUtil(SECRET, -60000L).generateToken("user@example.com", 42L);
+
+        assertThatThrownBy(() -> cache.verify(expired)).isInstanceOf(ExpiredJwtException.class);
+        assertThatThrownBy(() -> cache.verify(expired)).isInstanceOf(ExpiredJwtException.class);
+        verify(jwtUtil, times(2)).parseClaims(anyString());
+    }
+
+    @Test
+    void rejectsRevokedToken() {
+        String token = jwtUtil.generateToken("user@example.com", 42L);
+        String other = jwtUtil.generateToken("other@example.com", 7L);
+        cache.verify(token);
+
+        cache.revoke(token);
+
+        assertThatThrownBy(() -> cache.verify(token)).hasMessage("Token has been revoked");
+        assertThat(cache.verify(other).claims().getSubject()).isEqualTo("other@example.com");
+        assertThat(meterRegistry.counter("jwt.token.revocations").count()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsRevocationsBeyondTheCacheSize() {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String token = jwtUtil.generateToken("user" + i + "@example.com", (long) i);
+            tokens.add(token);
+            cache.revoke(token);
+        }
+
+        for (String token : tokens) {
+            assertThatThrownBy(() -> cache.verify(token)).hasMessage("Token has been revoked");
+        }
+    }
+
+    @Test
+    void ignoresRevocationOfInvalidToken() {
+        cache.revoke("not-a-token");
+
+        assertThat(meterRegistry.counter("jwt.token.revocations").count()).isZero();
+    }
+}
@@ -5,6 +5,7 @@ import com.fincategorizer.transaction.dto.TransactionRequest;
 import com.fincategorizer.transaction.dto.TransactionResponse;
 import com.fincategorizer.transaction.dto.UpdateCategoryRequest;
 import com.fincategorizer.transaction.service.TransactionService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,10 +14,12 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.time.LocalDate;
 
 @RestController
@@ -54,6 +57,17 @@ public class TransactionController {
         return ResponseEntity.ok(response);
     }
     
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchUploadResponse> ingestBulk(
+            @RequestHeader("X-User-Id") Long userId,
+            HttpServletRequest request) throws IOException {
+        log.info("POST /api/transactions/bulk - userId: {}", userId);
+        BatchUploadResponse response = transactionService.ingestJson(userId, request.getInputStream());
+        // A body that broke off partway is still a bad request; the summary says what was imported
+        HttpStatus status = response.getParseError() != null ? HttpStatus.BAD_REQUEST : HttpStatus.OK;
+        return ResponseEntity.status(status).body(response);
+    }
+    
     @GetMapping
     public ResponseEntity<Page<TransactionResponse>> getTransactions(
             @RequestHeader("X-User-Id") Long userId,
@@ -1,5 +1,6 @@
 package com.fincategorizer.transaction.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,7 +17,13 @@ public class BatchUploadResponse {
     private Integer totalRecords;
     private Integer successCount;
     private Integer failureCount;
+    private Integer duplicateCount;
     private List<ErrorDetail> errors;
+    private List<DuplicateDetail> duplicates;
+    
+    // Set when the payload turned malformed partway; the counts cover the rows before it
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String parseError;
     
     @Data
     @Builder
@@ -27,4 +34,13 @@ public class BatchUploadResponse {
         private String merchantName;
         private String error;
     }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DuplicateDetail {
+        private Integer rowNumber;
+        private String merchantName;
+    }
 }
@@ -1,5 +1,6 @@
 package com.fincategorizer.transaction.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,6 +19,14 @@ public class MLCategorizationResponse {
     private Double confidenceScore;
     private List<AlternativeCategory> alternatives;
     
+    // Set locally when the ML service could not be reached and the default was used
+    @JsonIgnore
+    private boolean fallback;
+    
+    // Set locally when the answer did not come from the ML service (a TransactionMetrics outcome)
+    @JsonIgnore
+    private String source;
+    
     @Data
     @Builder
     @NoArgsConstructor
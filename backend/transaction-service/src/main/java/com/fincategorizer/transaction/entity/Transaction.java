@@ -58,6 +58,9 @@ public class Transaction {
     @Column(name = "metadata_json", columnDefinition = "JSON")
     private String metadataJson;
     
+    @Column(name = "ingest_fingerprint", length = 64)
+    private String ingestFingerprint;
+    
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,253 @@
+package com.fincategorizer.transaction.event;
+
+import com.fincategorizer.transaction.service.CacheService;
+import com.fincategorizer.transaction.service.LocalMerchantCache;
+import com.fincategorizer.transaction.service.MerchantPatternService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads category-service's event stream through a consumer group and drops cached
+ * merchant mappings of deleted categories, and of merchants whose learned pattern
+ * changed. The cache lives in Redis, so one consumer per event is enough.
+ * <p>
+ * Entries are acknowledged after they are handled. A failed entry stays pending for this
+ * consumer and is retried on later polls, until it has been delivered max-deliveries
+ * times; it is then moved to the dead-letter stream and acknowledged, as is a malformed
+ * entry right away, so one bad entry does not hold up the ones behind it.
+ * <p>
+ * Every instance also reads the stream on its own, from where it was when it started,
+ * to evict the same categories and merchants from its in-process caches. An entry that
+ * fails there is logged and skipped.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryEventConsumer {
+    
+    private static final String CATEGORY_DELETED = "CATEGORY_DELETED";
+    private static final String MERCHANT_PATTERN_CHANGED = "MERCHANT_PATTERN_CHANGED";
+    
+    private final StringRedisTemplate stringRedisTemplate;
+    private final CacheService cacheService;
+    private final LocalMerchantCache localMerchantCache;
+    private final MerchantPatternService merchantPatternService;
+    
+    @Value("${events.category.stream:category-events}")
+    private String stream;
+    
+    @Value("${events.category.consumer-group:transaction-service}")
+    private String group;
+    
+    // Stable per instance so pending entries are picked up again after a restart
+    @Value("${HOSTNAME:transaction-service}")
+    private String consumerName;
+    
+    @Value("${events.category.batch-size:100}")
+    private int batchSize;
+    
+    // Deliveries of a failing entry before it is moved to the dead-letter stream and acknowledged
+    @Value("${events.category.max-deliveries:10}")
+    private long maxDeliveries;
+    
+    @Value("${events.category.dead-letter-stream:category-events-dead}")
+    private String deadLetterStream;
+    
+    private volatile boolean groupCreated;
+    
+    // Last entry this instance evicted its in-process caches for
+    private volatile String localOffset;
+    
+    @Scheduled(fixedDelayString = "${events.category.poll-interval:1000}")
+    public void poll() {
+        try {
+            ensureGroup();
+            // This consumer's pending entries first, then new ones
+            List<MapRecord<String, Object, Object>> records = read(ReadOffset.from("0"));
+            if (records.isEmpty()) {
+                records = read(ReadOffset.lastConsumed());
+            }
+            for (MapRecord<String, Object, Object> record : records) {
+                if (process(record)) {
+                    stringRedisTemplate.opsForStream().acknowledge(stream, group, record.getId());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to consume category events: {}", e.getMessage());
+        }
+        try {
+            evictLocal();
+        } catch (Exception e) {
+            log.warn("Failed to read category events for local caches: {}", e.getMessage());
+        }
+    }
+    
+    private void evictLocal() {
+        if (localOffset == null) {
+            List<MapRecord<String, Object, Object>> last = stringRedisTemplate.opsForStream()
+                .reverseRange(stream, Range.unbounded(), Limit.limit().count(1));
+            localOffset = last == null || last.isEmpty() ? "0-0" : last.get(0).getId().getValue();
+            return;
+        }
+        // read takes its offsets as generic varargs; a single offset of the declared type is safe
+        @SuppressWarnings("unchecked")
+        List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream().read(
+            StreamReadOptions.empty().count(batchSize), StreamOffset.create(stream, ReadOffset.from(localOffset)));
+        if (records == null) {
+            return;
+        }
+        for (MapRecord<String, Object, Object> record : records) {
+            // The offset moves past a failing entry, or it would stop every later eviction of this instance
+            try {
+                evictLocal(record);
+            } catch (Exception e) {
+                log.error("Failed to evict local caches for category event {}: {} {}",
+                    record.getId(), e.getMessage(), record.getValue());
+            }
+            localOffset = record.getId().getValue();
+        }
+    }
+    
+    private void evictLocal(MapRecord<String, Object, Object> record) {
+        if (!isValid(record)) {
+            log.error("Skipping malformed category event {}: {}", record.getId(), record.getValue());
+            return;
+        }
+        Object eventType = record.getValue().get("eventType");
+        if (CATEGORY_DELETED.equals(eventType)) {
+            Long categoryId = longField(record, "categoryId");
+            localMerchantCache.invalidateCategory(categoryId);
+            merchantPatternService.invalidateCategory(categoryId);
+        } else if (MERCHANT_PATTERN_CHANGED.equals(eventType)) {
+            String merchant = record.getValue().get("merchant").toString();
+            localMerchantCache.invalidate(merchant);
+            merchantPatternService.invalidate(merchant);
+        }
+    }
+    
+    private List<MapRecord<String, Object, Object>> read(ReadOffset offset) {
+        // As in evictLocal, one offset passed to the generic varargs parameter
+        @SuppressWarnings("unchecked")
+        List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream().read(
+            Consumer.from(group, consumerName),
+            StreamReadOptions.empty().count(batchSize),
+            StreamOffset.create(stream, offset));
+        return records != null ? records : List.of();
+    }
+    
+    /**
+     * Handles one entry and returns whether to acknowledge it. A failed entry stays pending
+     * until it has been delivered max-deliveries times; a malformed one, or one out of
+     * deliveries, goes to the dead-letter stream so it no longer holds up the group.
+     */
+    private boolean process(MapRecord<String, Object, Object> record) {
+        if (!isValid(record)) {
+            deadLetter(record, "malformed");
+            return true;
+        }
+        try {
+            handle(record);
+            return true;
+        } catch (Exception e) {
+            long deliveries = deliveryCount(record);
+            if (deliveries < maxDeliveries) {
+                log.warn("Failed to handle category event {} (delivery {} of {}): {}",
+                    record.getId(), deliveries, maxDeliveries, e.getMessage());
+                return false;
+            }
+            deadLetter(record, e.getMessage());
+            return true;
+        }
+    }
+    
+    private void handle(MapRecord<String, Object, Object> record) {
+        Object eventType = record.getValue().get("eventType");
+        if (CATEGORY_DELETED.equals(eventType)) {
+            Long categoryId = longField(record, "categoryId");
+            log.info("Category {} was deleted, reassigned to {}", categoryId, record.getValue().get("reassignedTo"));
+            cacheService.invalidateCategory(categoryId);
+            // Custom categories belong to one user, whose overrides were moved to the target
+            cacheService.invalidateUserOverrides(longField(record, "userId"));
+        } else if (MERCHANT_PATTERN_CHANGED.equals(eventType)) {
+            // The global mapping is consulted before learned patterns and would shadow this one
+            String merchant = record.getValue().get("merchant").toString();
+            log.info("Learned pattern of {} changed, dropping its cached mapping", merchant);
+            cacheService.invalidateCache(merchant);
+        }
+    }
+    
+    // The fields handle parses are present and well formed; other event types are ignored
+    private static boolean isValid(MapRecord<String, Object, Object> record) {
+        Object eventType = record.getValue().get("eventType");
+        if (CATEGORY_DELETED.equals(eventType)) {
+            return longField(record, "categoryId") != null && longField(record, "userId") != null;
+        }
+        if (MERCHANT_PATTERN_CHANGED.equals(eventType)) {
+            Object merchant = record.getValue().get("merchant");
+            return merchant != null && !merchant.toString().isBlank();
+        }
+        return true;
+    }
+    
+    private static Long longField(MapRecord<String, Object, Object> record, String field) {
+        Object value = record.getValue().get(field);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    // XPENDING of the entry; reading it again from this consumer's pending list counted as a delivery
+    private long deliveryCount(MapRecord<String, Object, Object> record) {
+        PendingMessages pending = stringRedisTemplate.opsForStream().pending(
+            stream, group, Range.closed(record.getId().getValue(), record.getId().getValue()), 1);
+        return pending == null || pending.isEmpty() ? 1 : pending.get(0).getTotalDeliveryCount();
+    }
+    
+    private void deadLetter(MapRecord<String, Object, Object> record, String reason) {
+        Map<Object, Object> fields = new HashMap<>(record.getValue());
+        fields.put("sourceId", record.getId().getValue());
+        fields.put("error", String.valueOf(reason));
+        stringRedisTemplate.opsForStream().add(StreamRecords.newRecord().in(deadLetterStream).ofMap(fields));
+        log.error("Moved category event {} to {}: {} {}", record.getId(), deadLetterStream, reason, record.getValue());
+    }
+    
+    private void ensureGroup() {
+        if (groupCreated) {
+            return;
+        }
+        try {
+            // From the start of the stream: invalidations are idempotent
+            stringRedisTemplate.execute((RedisCallback<String>) connection -> connection.streamCommands()
+                .xGroupCreate(stream.getBytes(StandardCharsets.UTF_8), group, ReadOffset.from("0"), true));
+        } catch (Exception e) {
+            if (!String.valueOf(e.getMessage()).contains("BUSYGROUP")) {
+                throw e;
+            }
+        }
+        groupCreated = true;
+    }
+}
@@ -0,0 +1,54 @@
+package com.fincategorizer.transaction.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-process stand-in for the event stream. A failing listener aborts the batch so the
+ * relay redelivers it; each listener remembers the ids of the events it processed, so
+ * listeners that already succeeded skip the replayed ones. Outbox ids are allocated
+ * before commit and may become visible out of order, so a later batch can contain ids
+ * below ones already delivered and there is no offset to compare against. Ids below the
+ * first event of a batch were marked published by the relay and are forgotten.
+ */
+@Component
+@ConditionalOnProperty(name = "events.publisher", havingValue = "in-process")
+@Slf4j
+public class InProcessTransactionEventPublisher implements TransactionEventPublisher {
+    
+    private final List<TransactionEventListener> listeners;
+    private final Map<String, NavigableSet<Long>> delivered = new ConcurrentHashMap<>();
+    
+    public InProcessTransactionEventPublisher(ObjectProvider<TransactionEventListener> listeners) {
+        this.listeners = listeners.orderedStream().toList();
+    }
+    
+    @Override
+    public void publish(List<TransactionEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        // The relay passes unpublished rows in id order
+        long first = events.get(0).getEventId();
+        for (TransactionEventListener listener : listeners) {
+            NavigableSet<Long> processed = delivered.computeIfAbsent(listener.name(), name -> new ConcurrentSkipListSet<>());
+            processed.headSet(first).clear();
+            for (TransactionEvent event : events) {
+                if (processed.contains(event.getEventId())) {
+                    continue;
+                }
+                listener.onEvent(event);
+                processed.add(event.getEventId());
+            }
+        }
+        log.debug("Delivered {} transaction events to {} listeners", events.size(), listeners.size());
+    }
+}
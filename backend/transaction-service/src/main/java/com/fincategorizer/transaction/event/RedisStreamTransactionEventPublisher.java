@@ -0,0 +1,73 @@
+package com.fincategorizer.transaction.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes events to Redis Streams. Each user is pinned to one of a fixed number of
+ * partition streams, so XADD order (and therefore consumer-group delivery order)
+ * matches outbox order per user. Consumer offsets are tracked by Redis consumer groups.
+ */
+@Component
+@ConditionalOnProperty(name = "events.publisher", havingValue = "redis", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class RedisStreamTransactionEventPublisher implements TransactionEventPublisher {
+    
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${events.redis.stream-prefix:transaction-events}")
+    private String streamPrefix;
+    
+    @Value("${events.redis.partitions:8}")
+    private int partitions;
+    
+    @Value("${events.redis.max-length:100000}")
+    private long maxLength;
+    
+    @Override
+    public void publish(List<TransactionEvent> events) {
+        XAddOptions options = XAddOptions.maxlen(maxLength).approximateTrimming(true);
+        
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (TransactionEvent event : events) {
+                redis.xAdd(StreamRecords.string(toFields(event)).withStreamKey(streamKey(event.getUserId())), options);
+            }
+            return null;
+        });
+        log.debug("Published {} transaction events to Redis streams", events.size());
+    }
+    
+    public String streamKey(Long userId) {
+        return streamPrefix + ":" + Math.floorMod(userId, partitions);
+    }
+    
+    private Map<String, String> toFields(TransactionEvent event) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("eventId", String.valueOf(event.getEventId()));
+        fields.put("eventType", event.getEventType().name());
+        fields.put("userId", String.valueOf(event.getUserId()));
+        try {
+            fields.put("payload", objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize event " + event.getEventId(), e);
+        }
+        return fields;
+    }
+}
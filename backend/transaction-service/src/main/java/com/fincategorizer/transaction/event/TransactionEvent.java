@@ -0,0 +1,31 @@
+package com.fincategorizer.transaction.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionEvent {
+    
+    private Long eventId;
+    private TransactionEventType eventType;
+    private Long userId;
+    private Long transactionId;
+    private String merchantNormalized;
+    private BigDecimal amount;
+    private String currency;
+    private LocalDate transactionDate;
+    private Long categoryId;
+    private Long previousCategoryId;
+    private BigDecimal confidenceScore;
+    private Boolean isUserCorrected;
+    private LocalDateTime occurredAt;
+}
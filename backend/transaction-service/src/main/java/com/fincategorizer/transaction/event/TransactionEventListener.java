@@ -0,0 +1,12 @@
+package com.fincategorizer.transaction.event;
+
+/**
+ * In-process consumer of transaction events, used with the in-process publisher.
+ * The name identifies the consumer's record of delivered events.
+ */
+public interface TransactionEventListener {
+    
+    String name();
+    
+    void onEvent(TransactionEvent event);
+}
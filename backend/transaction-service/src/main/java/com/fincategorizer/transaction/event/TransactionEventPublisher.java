@@ -0,0 +1,13 @@
+package com.fincategorizer.transaction.event;
+
+import java.util.List;
+
+/**
+ * Delivers relayed outbox events. Events arrive in outbox order, which keeps
+ * them ordered per user; an exception leaves the batch unpublished so the
+ * relay retries it (at-least-once delivery).
+ */
+public interface TransactionEventPublisher {
+    
+    void publish(List<TransactionEvent> events);
+}
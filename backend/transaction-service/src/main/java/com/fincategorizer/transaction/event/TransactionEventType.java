@@ -0,0 +1,6 @@
+package com.fincategorizer.transaction.event;
+
+public enum TransactionEventType {
+    TRANSACTION_CREATED,
+    TRANSACTION_UPDATED
+}
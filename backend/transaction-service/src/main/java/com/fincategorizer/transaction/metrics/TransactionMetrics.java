@@ -0,0 +1,94 @@
+package com.fincategorizer.transaction.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the transaction hot path. Percentile histograms are switched on through
+ * management.metrics.distribution.percentiles-histogram in application.yml.
+ */
+@Component
+@RequiredArgsConstructor
+public class TransactionMetrics {
+    
+    public static final String OUTCOME_ML = "ml";
+    public static final String OUTCOME_ML_FALLBACK = "ml_fallback";
+    public static final String OUTCOME_PATTERN = "pattern";
+    public static final String OUTCOME_USER_OVERRIDE = "user_override";
+    public static final String OUTCOME_CACHE_HIT = "cache_hit";
+    public static final String OUTCOME_LOW_CONFIDENCE_CACHE = "low_confidence_cache";
+    public static final String OUTCOME_ERROR = "error";
+    
+    private final MeterRegistry meterRegistry;
+    
+    public StageTimer startCreate() {
+        return new StageTimer();
+    }
+    
+    public void recordIngestion(String source, int imported, int duplicates, int failed, long elapsedNanos) {
+        ingestCounter(source, "imported").increment(imported);
+        ingestCounter(source, "duplicate").increment(duplicates);
+        ingestCounter(source, "failed").increment(failed);
+        
+        int rows = imported + duplicates + failed;
+        if (rows > 0 && elapsedNanos > 0) {
+            DistributionSummary.builder("transaction.ingest.throughput")
+                .description("Rows processed per second by a single bulk upload")
+                .baseUnit("rows/s")
+                .tag("source", source)
+                .register(meterRegistry)
+                .record(rows / (elapsedNanos / 1_000_000_000.0));
+        }
+    }
+    
+    private Counter ingestCounter(String source, String result) {
+        return Counter.builder("transaction.ingest.rows")
+            .description("Rows handled by bulk ingestion")
+            .tag("source", source)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Lap timer for createTransaction. Stage durations are buffered and recorded once
+     * the outcome is known, so every stage sample carries the request outcome tag.
+     */
+    public class StageTimer {
+        
+        private final long startNanos = System.nanoTime();
+        private final List<String> stages = new ArrayList<>(6);
+        private final List<Long> durations = new ArrayList<>(6);
+        private long lapNanos = startNanos;
+        
+        public void stage(String stage) {
+            long now = System.nanoTime();
+            stages.add(stage);
+            durations.add(now - lapNanos);
+            lapNanos = now;
+        }
+        
+        public void finish(String outcome) {
+            for (int i = 0; i < stages.size(); i++) {
+                Timer.builder("transaction.create.stage")
+                    .description("Time spent in each stage of createTransaction")
+                    .tag("stage", stages.get(i))
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(durations.get(i), TimeUnit.NANOSECONDS);
+            }
+            Timer.builder("transaction.create")
+                .description("End-to-end createTransaction time")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
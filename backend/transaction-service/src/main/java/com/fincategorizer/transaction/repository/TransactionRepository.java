@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -46,4 +47,11 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
         @Param("userId") Long userId,
         @Param("merchantNormalized") String merchantNormalized
     );
+    
+    @Query("SELECT t.ingestFingerprint FROM Transaction t WHERE t.userId = :userId " +
+           "AND t.ingestFingerprint IN :fingerprints")
+    List<String> findExistingFingerprints(
+        @Param("userId") Long userId,
+        @Param("fingerprints") Collection<String> fingerprints
+    );
 }
@@ -3,10 +3,24 @@ package com.fincategorizer.transaction.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 @Service
@@ -14,30 +28,137 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 public class CacheService {
     
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisTemplate<String, Long> redisTemplate;
+    private final LocalMerchantCache localMerchantCache;
+    private final MerchantCacheDoorkeeper doorkeeper;
     
     @Value("${cache.merchant-mapping-ttl:604800}")
     private long merchantMappingTtl;
     
+    // Spread of bulk-written TTLs, so mappings cached together do not expire together
+    @Value("${cache.merchant-mapping-ttl-jitter:0.1}")
+    private double merchantMappingTtlJitter;
+    
+    @Value("${cache.user-override-ttl:604800}")
+    private long userOverrideTtl;
+    
+    // Low-confidence answers are reused until the soft TTL and served stale until the hard TTL
+    @Value("${cache.low-confidence.soft-ttl:900}")
+    private long lowConfidenceSoftTtl;
+    
+    @Value("${cache.low-confidence.hard-ttl:21600}")
+    private long lowConfidenceHardTtl;
+    
+    @Value("${cache.low-confidence.revalidation-lock-ttl:30}")
+    private long revalidationLockTtl;
+    
     private static final String MERCHANT_CACHE_PREFIX = "merchant:";
     
-    public void cacheMerchantMapping(String merchantNormalized, Long categoryId) {
+    // One hash per user, merchant -> category id; small hashes stay listpack-encoded
+    private static final String USER_MERCHANT_PREFIX = "user-merchant:";
+    
+    // Set once the hash holds all of the user's overrides; normalized merchants never contain '_'
+    private static final String LOADED_FIELD = "_loaded";
+    
+    // Last ML answer below the caching threshold: category, confidence in thousandths, soft expiry (epoch seconds)
+    private static final String LOW_CONFIDENCE_PREFIX = "merchant-low:";
+    private static final List<String> LOW_CONFIDENCE_FIELDS = List.of("c", "p", "s");
+    
+    private static final String REVALIDATION_LOCK_PREFIX = "merchant-low-lock:";
+    
+    // One hash per category and day, merchant -> 1, naming the merchants whose mapping to the category was written that day
+    private static final String CATEGORY_INDEX_PREFIX = "category-merchants:";
+    private static final long CATEGORY_INDEX_WINDOW = 86400;
+    
+    // The same for low-confidence answers, one hash per category and hard TTL, so one-off merchants leave with their answers
+    private static final String LOW_CONFIDENCE_INDEX_PREFIX = "category-merchants-low:";
+    
+    private static final int SCAN_BATCH_SIZE = 500;
+    
+    // Keys per MGET / UNLINK, bounding the size of a single command and its reply
+    private static final int MAX_KEYS_PER_COMMAND = 1000;
+    
+    /**
+     * Caches a mapping in process, and in Redis once admitted by the doorkeeper. Returns
+     * whether it was written to Redis, where other instances can see it.
+     */
+    public boolean cacheMerchantMapping(String merchantNormalized, Long categoryId) {
         String key = MERCHANT_CACHE_PREFIX + merchantNormalized;
+        localMerchantCache.put(merchantNormalized, categoryId);
+        if (doorkeeper.admit(List.of(merchantNormalized)).isEmpty()) {
+            log.debug("Not caching first sighting of merchant: {}", merchantNormalized);
+            return false;
+        }
         try {
-            redisTemplate.opsForValue().set(key, categoryId, merchantMappingTtl, TimeUnit.SECONDS);
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, Long> redis = (RedisOperations<String, Long>) operations;
+                    redis.opsForValue().set(key, categoryId, merchantMappingTtl, TimeUnit.SECONDS);
+                    queueMappingIndex(redis, Map.of(merchantNormalized, categoryId));
+                    return null;
+                }
+            });
             log.debug("Cached merchant mapping: {} -> {}", merchantNormalized, categoryId);
+            return true;
         } catch (Exception e) {
             log.error("Error caching merchant mapping", e);
+            return false;
+        }
+    }
+    
+    /**
+     * Caches many mappings, each in Redis only once admitted by the doorkeeper.
+     */
+    public void cacheMerchantMappings(Map<String, Long> mappings) {
+        if (mappings.isEmpty()) {
+            return;
+        }
+        localMerchantCache.putAll(mappings);
+        Map<String, Long> admitted = new HashMap<>(mappings);
+        admitted.keySet().retainAll(doorkeeper.admit(mappings.keySet()));
+        writeMerchantMappings(admitted);
+    }
+    
+    /**
+     * Writes mappings to Redis in one pipelined round trip. MSET cannot set expiries, so
+     * each key is a SET with its own, slightly jittered TTL.
+     */
+    private void writeMerchantMappings(Map<String, Long> mappings) {
+        if (mappings.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, Long> redis = (RedisOperations<String, Long>) operations;
+                    mappings.forEach((merchant, categoryId) -> redis.opsForValue().set(
+                        MERCHANT_CACHE_PREFIX + merchant, categoryId, jitteredTtl(), TimeUnit.SECONDS));
+                    queueMappingIndex(redis, mappings);
+                    return null;
+                }
+            });
+            log.debug("Cached {} merchant mappings", mappings.size());
+        } catch (Exception e) {
+            log.error("Error caching merchant mappings", e);
         }
     }
     
     public Optional<Long> getCachedCategory(String merchantNormalized) {
+        Long local = localMerchantCache.get(merchantNormalized);
+        if (local != null) {
+            return Optional.of(local);
+        }
         String key = MERCHANT_CACHE_PREFIX + merchantNormalized;
         try {
-            Object value = redisTemplate.opsForValue().get(key);
+            Long value = redisTemplate.opsForValue().get(key);
             if (value != null) {
                 log.debug("Cache hit for merchant: {}", merchantNormalized);
-                return Optional.of(Long.valueOf(value.toString()));
+                localMerchantCache.put(merchantNormalized, value);
+                return Optional.of(value);
             }
         } catch (Exception e) {
             log.error("Error retrieving cached category", e);
@@ -45,8 +166,62 @@ public class CacheService {
         return Optional.empty();
     }
     
+    /**
+     * Global mappings of many merchants, with one MGET per thousand keys, all pipelined.
+     * Merchants without a mapping are absent from the result.
+     */
+    public Map<String, Long> getCachedCategories(Collection<String> merchantsNormalized) {
+        Map<String, Long> found = localMerchantCache.getAll(merchantsNormalized);
+        List<String> merchants = merchantsNormalized.stream()
+            .distinct()
+            .filter(merchant -> !found.containsKey(merchant))
+            .toList();
+        if (merchants.isEmpty()) {
+            return found;
+        }
+        try {
+            Map<String, Long> remote = multiGet(merchants);
+            localMerchantCache.putAll(remote);
+            found.putAll(remote);
+        } catch (Exception e) {
+            log.error("Error retrieving cached categories", e);
+        }
+        return found;
+    }
+    
+    /**
+     * Loads mappings known from elsewhere into the cache. Those of a local snapshot may be
+     * up to a day old and were never admitted, so they only go to the in-process tier;
+     * those just derived from the database go to both. Where Redis already holds a mapping
+     * it wins. Returns how many were written to Redis.
+     */
+    public int warmMerchantMappings(Map<String, Long> snapshot, Map<String, Long> derived) {
+        List<String> merchants = new ArrayList<>(snapshot.keySet());
+        merchants.addAll(derived.keySet().stream().filter(merchant -> !snapshot.containsKey(merchant)).toList());
+        if (merchants.isEmpty()) {
+            return 0;
+        }
+        localMerchantCache.putAll(snapshot);
+        Map<String, Long> cached;
+        try {
+            cached = multiGet(merchants);
+        } catch (Exception e) {
+            log.error("Error reading merchant mappings to warm", e);
+            localMerchantCache.putAll(derived);
+            return 0;
+        }
+        Map<String, Long> missing = new HashMap<>(derived);
+        missing.keySet().removeAll(cached.keySet());
+        localMerchantCache.putAll(missing);
+        localMerchantCache.putAll(cached);
+        // Frequent merchants by definition, so they bypass the doorkeeper
+        writeMerchantMappings(missing);
+        return missing.size();
+    }
+    
     public void invalidateCache(String merchantNormalized) {
         String key = MERCHANT_CACHE_PREFIX + merchantNormalized;
+        localMerchantCache.invalidate(merchantNormalized);
         try {
             redisTemplate.delete(key);
             log.debug("Invalidated cache for merchant: {}", merchantNormalized);
@@ -54,4 +229,369 @@ public class CacheService {
             log.error("Error invalidating cache", e);
         }
     }
+    
+    /**
+     * Drops many mappings with UNLINK, which frees memory off Redis' main thread.
+     */
+    public long invalidateMerchants(Collection<String> merchantsNormalized) {
+        localMerchantCache.invalidateAll(merchantsNormalized);
+        List<String> keys = merchantsNormalized.stream()
+            .distinct()
+            .map(merchant -> MERCHANT_CACHE_PREFIX + merchant)
+            .toList();
+        try {
+            return unlink(keys);
+        } catch (Exception e) {
+            log.error("Error invalidating {} merchant mappings", keys.size(), e);
+            return 0;
+        }
+    }
+    
+    /**
+     * Reads the user's override and the global mapping for a merchant in one pipelined
+     * round trip. Returns null when Redis is unavailable.
+     */
+    public MerchantLookup lookupMerchant(Long userId, String merchantNormalized) {
+        Map<String, MerchantLookup> lookups = lookupMerchants(userId, List.of(merchantNormalized));
+        return lookups != null ? lookups.get(merchantNormalized) : null;
+    }
+    
+    /**
+     * lookupMerchant for many merchants of one user: one HMGET on the user's hash and the
+     * MGETs of the global keys not held in process, in a single pipelined round trip.
+     * Returns null when Redis is unavailable.
+     */
+    public Map<String, MerchantLookup> lookupMerchants(Long userId, Collection<String> merchantsNormalized) {
+        List<String> merchants = new ArrayList<>(new LinkedHashSet<>(merchantsNormalized));
+        Map<String, MerchantLookup> lookups = new HashMap<>();
+        if (merchants.isEmpty()) {
+            return lookups;
+        }
+        String userKey = USER_MERCHANT_PREFIX + userId;
+        List<String> fields = new ArrayList<>(merchants.size() + 1);
+        fields.addAll(merchants);
+        fields.add(LOADED_FIELD);
+        Map<String, Long> global = localMerchantCache.getAll(merchants);
+        List<String> remote = merchants.stream().filter(merchant -> !global.containsKey(merchant)).toList();
+        try {
+            List<Object> replies = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, Long> redis = (RedisOperations<String, Long>) operations;
+                    redis.<String, Long>opsForHash().multiGet(userKey, fields);
+                    queueMultiGet(redis, remote);
+                    merchants.forEach(merchant ->
+                        redis.<String, Long>opsForHash().multiGet(LOW_CONFIDENCE_PREFIX + merchant, LOW_CONFIDENCE_FIELDS));
+                    return null;
+                }
+            });
+            List<?> userValues = (List<?>) replies.get(0);
+            boolean loaded = userValues.get(merchants.size()) != null;
+            Map<String, Long> fetched = new HashMap<>();
+            int lowConfidenceReplies = collectMultiGet(remote, replies, 1, fetched);
+            localMerchantCache.putAll(fetched);
+            global.putAll(fetched);
+            for (int i = 0; i < merchants.size(); i++) {
+                String merchant = merchants.get(i);
+                lookups.put(merchant, new MerchantLookup((Long) userValues.get(i), loaded, global.get(merchant),
+                    toLowConfidenceAnswer((List<?>) replies.get(lowConfidenceReplies + i))));
+            }
+            return lookups;
+        } catch (Exception e) {
+            log.error("Error looking up cached merchant mappings", e);
+            return null;
+        }
+    }
+    
+    /**
+     * Fills the user's override hash with everything persisted for the user and marks it
+     * complete. Fields written meanwhile by a newer correction are kept.
+     */
+    public void cacheUserOverrides(Long userId, Map<String, Long> overrides) {
+        String userKey = USER_MERCHANT_PREFIX + userId;
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, Long> redis = (RedisOperations<String, Long>) operations;
+                    overrides.forEach((merchant, categoryId) ->
+                        redis.opsForHash().putIfAbsent(userKey, merchant, categoryId));
+                    redis.opsForHash().put(userKey, LOADED_FIELD, 1L);
+                    redis.expire(userKey, userOverrideTtl, TimeUnit.SECONDS);
+                    return null;
+                }
+            });
+            log.debug("Cached {} merchant overrides of user {}", overrides.size(), userId);
+        } catch (Exception e) {
+            log.error("Error caching merchant overrides", e);
+        }
+    }
+    
+    public void cacheUserOverride(Long userId, String merchantNormalized, Long categoryId) {
+        String userKey = USER_MERCHANT_PREFIX + userId;
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, Long> redis = (RedisOperations<String, Long>) operations;
+                    redis.opsForHash().put(userKey, merchantNormalized, categoryId);
+                    redis.expire(userKey, userOverrideTtl, TimeUnit.SECONDS);
+                    return null;
+                }
+            });
+            log.debug("Cached merchant override of user {}: {} -> {}", userId, merchantNormalized, categoryId);
+        } catch (Exception e) {
+            log.error("Error caching merchant override", e);
+        }
+    }
+    
+    /**
+     * Caches ML answers below the high-confidence threshold, each fresh for the soft TTL.
+     */
+    public void cacheLowConfidence(Map<String, LowConfidenceAnswer> answers) {
+        if (answers.isEmpty()) {
+            return;
+        }
+        // A later confident answer for the merchant is then admitted as a mapping
+        doorkeeper.recordSightings(answers.keySet());
+        long softExpiresAt = System.currentTimeMillis() / 1000 + lowConfidenceSoftTtl;
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, Long> redis = (RedisOperations<String, Long>) operations;
+                    answers.forEach((merchant, answer) -> {
+                        String key = LOW_CONFIDENCE_PREFIX + merchant;
+                        redis.opsForHash().putAll(key, Map.of(
+                            "c", answer.categoryId(),
+                            "p", Math.round(answer.confidence() * 1000),
+                            "s", softExpiresAt));
+                        redis.expire(key, lowConfidenceHardTtl, TimeUnit.SECONDS);
+                    });
+                    Map<String, Long> categories = new HashMap<>();
+                    answers.forEach((merchant, answer) -> categories.put(merchant, answer.categoryId()));
+                    queueCategoryIndex(redis, LOW_CONFIDENCE_INDEX_PREFIX, lowConfidenceHardTtl, lowConfidenceHardTtl,
+                        categories);
+                    return null;
+                }
+            });
+            log.debug("Cached {} low-confidence merchant answers", answers.size());
+        } catch (Exception e) {
+            log.error("Error caching low-confidence answers", e);
+        }
+    }
+    
+    public void removeLowConfidence(String merchantNormalized) {
+        try {
+            redisTemplate.unlink(LOW_CONFIDENCE_PREFIX + merchantNormalized);
+        } catch (Exception e) {
+            log.error("Error removing low-confidence answer", e);
+        }
+    }
+    
+    /**
+     * SET NX with expiry, so one caller per lock TTL re-evaluates a stale answer.
+     */
+    public boolean tryLockRevalidation(String merchantNormalized) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(
+                REVALIDATION_LOCK_PREFIX + merchantNormalized, 1L, revalidationLockTtl, TimeUnit.SECONDS));
+        } catch (Exception e) {
+            log.error("Error locking revalidation", e);
+            return false;
+        }
+    }
+    
+    public void invalidateUserOverrides(Long userId) {
+        try {
+            redisTemplate.delete(USER_MERCHANT_PREFIX + userId);
+        } catch (Exception e) {
+            log.error("Error invalidating merchant overrides of user {}", userId, e);
+        }
+    }
+    
+    /**
+     * Drops the merchant mappings and low-confidence answers that point to the category,
+     * found through the category's reverse index windows that may still name a live
+     * entry, then those windows.
+     */
+    public long invalidateCategory(Long categoryId) {
+        localMerchantCache.invalidateCategory(categoryId);
+        List<String> indexKeys = new ArrayList<>(
+            categoryIndexKeys(CATEGORY_INDEX_PREFIX, categoryId, CATEGORY_INDEX_WINDOW, maxMappingTtl()));
+        indexKeys.addAll(categoryIndexKeys(LOW_CONFIDENCE_INDEX_PREFIX, categoryId, lowConfidenceHardTtl, lowConfidenceHardTtl));
+        long removed = 0;
+        Set<String> visited = new HashSet<>();
+        List<String> batch = new ArrayList<>(SCAN_BATCH_SIZE);
+        ScanOptions options = ScanOptions.scanOptions().count(SCAN_BATCH_SIZE).build();
+        for (String indexKey : indexKeys) {
+            try (Cursor<Map.Entry<Object, Object>> cursor = redisTemplate.opsForHash().scan(indexKey, options)) {
+                while (cursor.hasNext()) {
+                    String merchant = (String) cursor.next().getKey();
+                    // A merchant cached on several days is in several windows
+                    if (visited.add(merchant)) {
+                        batch.add(merchant);
+                    }
+                    if (batch.size() == SCAN_BATCH_SIZE) {
+                        removed += deleteMatching(batch, categoryId);
+                        batch.clear();
+                    }
+                }
+            }
+        }
+        removed += deleteMatching(batch, categoryId);
+        unlink(indexKeys);
+        log.info("Invalidated {} cached merchant answers of category {}", removed, categoryId);
+        return removed;
+    }
+    
+    // The index may name merchants since remapped or expired, so only entries still pointing to the category go
+    private long deleteMatching(List<String> merchants, Long categoryId) {
+        if (merchants.isEmpty()) {
+            return 0;
+        }
+        List<Object> replies = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, Long> redis = (RedisOperations<String, Long>) operations;
+                queueMultiGet(redis, merchants);
+                merchants.forEach(merchant -> redis.opsForHash().get(LOW_CONFIDENCE_PREFIX + merchant, "c"));
+                return null;
+            }
+        });
+        Map<String, Long> global = new HashMap<>();
+        int reply = collectMultiGet(merchants, replies, 0, global);
+        List<String> matching = new ArrayList<>();
+        for (String merchant : merchants) {
+            if (categoryId.equals(global.get(merchant))) {
+                matching.add(MERCHANT_CACHE_PREFIX + merchant);
+            }
+            if (categoryId.equals(replies.get(reply++))) {
+                matching.add(LOW_CONFIDENCE_PREFIX + merchant);
+            }
+        }
+        return unlink(matching);
+    }
+    
+    // Mappings reach Redis only once admitted (or derived from the database), so one-off merchants stay out of this index
+    private void queueMappingIndex(RedisOperations<String, Long> operations, Map<String, Long> mappings) {
+        queueCategoryIndex(operations, CATEGORY_INDEX_PREFIX, CATEGORY_INDEX_WINDOW, maxMappingTtl(), mappings);
+    }
+    
+    /**
+     * Adds merchants to the reverse index of their category for the current window. The
+     * expiry of a window's index is fixed at the end of the window plus the TTL of its
+     * entries, so it is not pushed back by later writes and the index only ever holds
+     * the merchants of the windows whose entries may still be alive.
+     */
+    private static void queueCategoryIndex(RedisOperations<String, Long> operations, String prefix, long windowSeconds,
+                                           long entryTtl, Map<String, Long> merchantCategories) {
+        long now = System.currentTimeMillis() / 1000;
+        long window = now / windowSeconds;
+        long ttl = (window + 1) * windowSeconds + entryTtl - now;
+        Map<Long, Map<String, Long>> byCategory = new HashMap<>();
+        merchantCategories.forEach((merchant, categoryId) ->
+            byCategory.computeIfAbsent(categoryId, id -> new HashMap<>()).put(merchant, 1L));
+        byCategory.forEach((categoryId, merchants) -> {
+            String key = prefix + categoryId + ":" + window;
+            operations.opsForHash().putAll(key, merchants);
+            operations.expire(key, ttl, TimeUnit.SECONDS);
+        });
+    }
+    
+    // The index keys of the category not yet expired: the current window and those ending less than entryTtl ago
+    private static List<String> categoryIndexKeys(String prefix, Long categoryId, long windowSeconds, long entryTtl) {
+        long window = System.currentTimeMillis() / 1000 / windowSeconds;
+        long windows = (entryTtl + windowSeconds - 1) / windowSeconds;
+        List<String> keys = new ArrayList<>();
+        for (long w = window; w >= window - windows; w--) {
+            keys.add(prefix + categoryId + ":" + w);
+        }
+        return keys;
+    }
+    
+    private long unlink(List<String> keys) {
+        long removed = 0;
+        for (int from = 0; from < keys.size(); from += MAX_KEYS_PER_COMMAND) {
+            Long unlinked = redisTemplate.unlink(keys.subList(from, Math.min(from + MAX_KEYS_PER_COMMAND, keys.size())));
+            removed += unlinked != null ? unlinked : 0;
+        }
+        return removed;
+    }
+    
+    private Map<String, Long> multiGet(List<String> merchants) {
+        Map<String, Long> found = new HashMap<>();
+        List<Object> replies = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, Long> redis = (RedisOperations<String, Long>) operations;
+                queueMultiGet(redis, merchants);
+                return null;
+            }
+        });
+        collectMultiGet(merchants, replies, 0, found);
+        return found;
+    }
+    
+    private static void queueMultiGet(RedisOperations<String, Long> operations, List<String> merchants) {
+        for (int from = 0; from < merchants.size(); from += MAX_KEYS_PER_COMMAND) {
+            operations.opsForValue().multiGet(merchants.subList(from, Math.min(from + MAX_KEYS_PER_COMMAND, merchants.size()))
+                .stream()
+                .map(merchant -> MERCHANT_CACHE_PREFIX + merchant)
+                .toList());
+        }
+    }
+    
+    // Reads the replies of queueMultiGet, which start at replies[firstReply]; returns the index after them
+    private static int collectMultiGet(List<String> merchants, List<Object> replies, int firstReply,
+                                       Map<String, Long> found) {
+        int reply = firstReply;
+        for (int from = 0; from < merchants.size(); from += MAX_KEYS_PER_COMMAND, reply++) {
+            List<?> values = (List<?>) replies.get(reply);
+            for (int i = 0; i < values.size(); i++) {
+                if (values.get(i) != null) {
+                    found.put(merchants.get(from + i), (Long) values.get(i));
+                }
+            }
+        }
+        return reply;
+    }
+    
+    private static LowConfidenceAnswer toLowConfidenceAnswer(List<?> fields) {
+        if (fields == null || fields.get(0) == null || fields.get(1) == null || fields.get(2) == null) {
+            return null;
+        }
+        boolean stale = (Long) fields.get(2) <= System.currentTimeMillis() / 1000;
+        return new LowConfidenceAnswer((Long) fields.get(0), (Long) fields.get(1) / 1000.0, stale);
+    }
+    
+    private long maxMappingTtl() {
+        return merchantMappingTtl + (long) (merchantMappingTtl * merchantMappingTtlJitter);
+    }
+    
+    private long jitteredTtl() {
+        long spread = (long) (merchantMappingTtl * merchantMappingTtlJitter);
+        return spread > 0 ? merchantMappingTtl - spread + ThreadLocalRandom.current().nextLong(2 * spread + 1) : merchantMappingTtl;
+    }
+    
+    /**
+     * Cached mappings of one merchant: the user's override, whether the user's hash is
+     * complete (so a missing override means there is none), the global mapping and the
+     * last low-confidence ML answer.
+     */
+    public record MerchantLookup(Long userCategoryId, boolean userOverridesLoaded, Long globalCategoryId,
+                                 LowConfidenceAnswer lowConfidence) {
+    }
+    
+    /**
+     * An ML answer below the caching threshold; stale once its soft TTL has passed.
+     */
+    public record LowConfidenceAnswer(Long categoryId, double confidence, boolean stale) {
+    }
 }
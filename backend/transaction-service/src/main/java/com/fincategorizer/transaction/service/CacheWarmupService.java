@@ -0,0 +1,95 @@
+package com.fincategorizer.transaction.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Preloads the merchant caches on startup, so a fresh instance or a flushed Redis does
+ * not send the first transaction of every merchant to the ML service. Runs as an
+ * application runner, and Spring Boot reports readiness only after those returned.
+ * <p>
+ * The most used learned patterns go to the pattern cache. The most frequent merchants of
+ * recent transactions go to both merchant mapping tiers; the local snapshot, if one was
+ * restored, goes to the in-process tier only.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CacheWarmupService implements ApplicationRunner {
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheService cacheService;
+    private final LocalMerchantCache localMerchantCache;
+    private final MerchantPatternService merchantPatternService;
+    
+    @Value("${cache.warmup.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${cache.warmup.top-merchants:10000}")
+    private int topMerchants;
+    
+    @Value("${cache.warmup.lookback:30d}")
+    private Duration lookback;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        long started = System.currentTimeMillis();
+        Map<String, Long> snapshot = localMerchantCache.readSnapshot();
+        if (!enabled && snapshot.isEmpty()) {
+            return;
+        }
+        int patterns = 0;
+        Map<String, Long> frequent = new HashMap<>();
+        if (enabled) {
+            try {
+                Set<String> patterned = merchantPatternService.preload(topMerchants);
+                patterns = patterned.size();
+                // Those merchants resolve through their pattern; a global mapping would shadow it
+                snapshot.keySet().removeAll(patterned);
+                frequent = frequentMerchants(patterned);
+            } catch (Exception e) {
+                log.warn("Failed to load merchants for cache warm-up: {}", e.getMessage());
+            }
+        }
+        int written = cacheService.warmMerchantMappings(snapshot, frequent);
+        log.info("Warmed merchant caches in {} ms: {} patterns, {} snapshot and {} frequent merchant mappings " +
+            "({} written to Redis)", System.currentTimeMillis() - started, patterns, snapshot.size(), frequent.size(), written);
+    }
+    
+    /**
+     * The usual category of the most frequent merchants. Only rows answered with a
+     * cacheable confidence count; user corrections and per-user overrides (stored with
+     * confidence 1) are not global mappings.
+     */
+    private Map<String, Long> frequentMerchants(Set<String> excluded) {
+        Map<String, Long> mappings = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT merchant_normalized, category_id, COUNT(*) AS hits FROM transactions " +
+            "WHERE transaction_date >= ? AND is_user_corrected = FALSE " +
+            "AND confidence_score >= ? AND confidence_score < 1 " +
+            "GROUP BY merchant_normalized, category_id ORDER BY hits DESC LIMIT ?",
+            rs -> {
+                String merchant = rs.getString("merchant_normalized");
+                if (mappings.size() < topMerchants && !excluded.contains(merchant)) {
+                    // Rows come most frequent first, so a merchant keeps its usual category
+                    mappings.putIfAbsent(merchant, rs.getLong("category_id"));
+                }
+            },
+            Timestamp.valueOf(LocalDateTime.now().minus(lookback)),
+            TransactionService.HIGH_CONFIDENCE_THRESHOLD,
+            2 * topMerchants);
+        return mappings;
+    }
+}
@@ -0,0 +1,161 @@
+package com.fincategorizer.transaction.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * In-process tier in front of the merchant mapping keys in Redis. Entries expire after
+ * cache.local.ttl, which bounds how long an instance keeps serving a mapping that was
+ * invalidated through another instance.
+ * <p>
+ * When cache.local.snapshot.enabled is set the tier is written to a gzipped binary file
+ * periodically and on shutdown (merchant as modified UTF-8, category id as int), and
+ * read back on boot unless older than cache.local.snapshot.max-age.
+ */
+@Service
+@Slf4j
+public class LocalMerchantCache {
+    
+    // "FMC1"
+    private static final int SNAPSHOT_MAGIC = 0x464d4331;
+    
+    private final Cache<String, Long> mappings;
+    private final boolean snapshotEnabled;
+    private final Path snapshotPath;
+    private final Duration snapshotMaxAge;
+    
+    public LocalMerchantCache(MeterRegistry meterRegistry,
+                              @Value("${cache.local.ttl:300}") long ttlSeconds,
+                              @Value("${cache.local.max-size:50000}") long maxSize,
+                              @Value("${cache.local.snapshot.enabled:false}") boolean snapshotEnabled,
+                              @Value("${cache.local.snapshot.path:/tmp/transaction-service/merchant-cache.bin}") String snapshotPath,
+                              @Value("${cache.local.snapshot.max-age:24h}") Duration snapshotMaxAge) {
+        this.mappings = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+        this.snapshotEnabled = snapshotEnabled;
+        this.snapshotPath = Path.of(snapshotPath);
+        this.snapshotMaxAge = snapshotMaxAge;
+        CaffeineCacheMetrics.monitor(meterRegistry, mappings, "merchant-mappings");
+    }
+    
+    public Long get(String merchantNormalized) {
+        return mappings.getIfPresent(merchantNormalized);
+    }
+    
+    /**
+     * The cached mappings of the merchants; absent merchants are not in the (mutable) result.
+     */
+    public Map<String, Long> getAll(Collection<String> merchantsNormalized) {
+        return new HashMap<>(mappings.getAllPresent(merchantsNormalized));
+    }
+    
+    public void put(String merchantNormalized, Long categoryId) {
+        mappings.put(merchantNormalized, categoryId);
+    }
+    
+    public void putAll(Map<String, Long> entries) {
+        mappings.putAll(entries);
+    }
+    
+    public void invalidate(String merchantNormalized) {
+        mappings.invalidate(merchantNormalized);
+    }
+    
+    public void invalidateAll(Collection<String> merchantsNormalized) {
+        mappings.invalidateAll(merchantsNormalized);
+    }
+    
+    public void invalidateCategory(Long categoryId) {
+        mappings.asMap().values().removeIf(categoryId::equals);
+    }
+    
+    /**
+     * The mappings of the last snapshot, or none when snapshots are disabled or the file
+     * is missing, unreadable or too old.
+     */
+    public Map<String, Long> readSnapshot() {
+        Map<String, Long> entries = new HashMap<>();
+        if (!snapshotEnabled || !Files.isRegularFile(snapshotPath)) {
+            return entries;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(snapshotPath))))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                log.warn("Ignoring merchant cache snapshot {}: unknown format", snapshotPath);
+                return entries;
+            }
+            Duration age = Duration.ofMillis(System.currentTimeMillis() - in.readLong());
+            if (age.compareTo(snapshotMaxAge) > 0) {
+                log.info("Ignoring merchant cache snapshot {}: {} old", snapshotPath, age);
+                return entries;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                entries.put(in.readUTF(), (long) in.readInt());
+            }
+            log.info("Read {} merchant mappings from snapshot {}", count, snapshotPath);
+        } catch (IOException e) {
+            log.warn("Failed to read merchant cache snapshot {}: {}", snapshotPath, e.getMessage());
+            entries.clear();
+        }
+        return entries;
+    }
+    
+    @Scheduled(fixedDelayString = "${cache.local.snapshot.interval:300000}",
+               initialDelayString = "${cache.local.snapshot.interval:300000}")
+    public void writeSnapshot() {
+        if (!snapshotEnabled) {
+            return;
+        }
+        Map<String, Long> entries = Map.copyOf(mappings.asMap());
+        Path temp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(snapshotPath.toAbsolutePath().getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(temp))))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeLong(System.currentTimeMillis());
+                out.writeInt(entries.size());
+                for (Map.Entry<String, Long> entry : entries.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().intValue());
+                }
+            }
+            // Readers never see a partially written snapshot
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Wrote {} merchant mappings to snapshot {}", entries.size(), snapshotPath);
+        } catch (IOException e) {
+            log.warn("Failed to write merchant cache snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+    
+    @PreDestroy
+    void snapshotOnShutdown() {
+        writeSnapshot();
+    }
+}
@@ -53,6 +53,7 @@ public class MLInferenceService {
                 .categoryId(15)
                 .categoryName("Others")
                 .confidenceScore(0.5)
+                .fallback(true)
                 .build();
         }
     }
@@ -0,0 +1,154 @@
+package com.fincategorizer.transaction.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission policy of the merchant mapping cache: a merchant is written to Redis only
+ * once it was answered before within the window, so one-off merchants do not hold a key
+ * for the whole mapping TTL. Sightings go to a Bloom filter shared by all instances,
+ * one Redis bitmap per window; the previous window's bitmap is consulted as well, so a
+ * sighting counts for one to two windows. A false positive only admits a merchant early.
+ */
+@Service
+@Slf4j
+public class MerchantCacheDoorkeeper {
+    
+    private static final String SIGHTINGS_PREFIX = "merchant-seen:";
+    
+    private final RedisTemplate<String, Long> redisTemplate;
+    private final boolean enabled;
+    private final long windowSeconds;
+    private final long bits;
+    private final int hashes;
+    private final Counter admitted;
+    private final Counter rejected;
+    
+    public MerchantCacheDoorkeeper(RedisTemplate<String, Long> redisTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${cache.admission.enabled:true}") boolean enabled,
+                                   @Value("${cache.admission.window:86400}") long windowSeconds,
+                                   @Value("${cache.admission.bits:8388608}") long bits,
+                                   @Value("${cache.admission.hashes:3}") int hashes) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.windowSeconds = windowSeconds;
+        this.bits = bits;
+        this.hashes = hashes;
+        this.admitted = admissions(meterRegistry, "admitted");
+        this.rejected = admissions(meterRegistry, "rejected");
+    }
+    
+    /**
+     * Records a sighting of each merchant and returns the ones to cache, that is the
+     * ones seen before. Admits everything when disabled or when Redis is unavailable.
+     */
+    public Set<String> admit(Collection<String> merchantsNormalized) {
+        List<String> merchants = merchantsNormalized.stream().distinct().toList();
+        if (!enabled || merchants.isEmpty()) {
+            return new HashSet<>(merchants);
+        }
+        Set<String> seen = markSeen(merchants);
+        if (seen == null) {
+            return new HashSet<>(merchants);
+        }
+        admitted.increment(seen.size());
+        rejected.increment(merchants.size() - seen.size());
+        log.debug("Admitted {} of {} merchants to the mapping cache", seen.size(), merchants.size());
+        return seen;
+    }
+    
+    /**
+     * Records sightings without an admission decision, for merchants answered with too
+     * low a confidence to be cached as a mapping yet.
+     */
+    public void recordSightings(Collection<String> merchantsNormalized) {
+        if (enabled && !merchantsNormalized.isEmpty()) {
+            markSeen(merchantsNormalized.stream().distinct().toList());
+        }
+    }
+    
+    // SETBIT on the current window and GETBIT on the previous one, in one round trip; null on failure
+    private Set<String> markSeen(List<String> merchants) {
+        long window = System.currentTimeMillis() / 1000 / windowSeconds;
+        String current = SIGHTINGS_PREFIX + window;
+        String previous = SIGHTINGS_PREFIX + (window - 1);
+        List<Object> replies;
+        try {
+            replies = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, Long> redis = (RedisOperations<String, Long>) operations;
+                    for (String merchant : merchants) {
+                        long hash = hash(merchant);
+                        for (int i = 0; i < hashes; i++) {
+                            long offset = offset(hash, i);
+                            redis.opsForValue().setBit(current, offset, true);
+                            redis.opsForValue().getBit(previous, offset);
+                        }
+                    }
+                    redis.expire(current, 2 * windowSeconds, TimeUnit.SECONDS);
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            log.error("Error recording merchant sightings", e);
+            return null;
+        }
+        Set<String> seen = new HashSet<>();
+        int reply = 0;
+        for (String merchant : merchants) {
+            boolean inCurrent = true;
+            boolean inPrevious = true;
+            for (int i = 0; i < hashes; i++) {
+                inCurrent &= Boolean.TRUE.equals(replies.get(reply++));
+                inPrevious &= Boolean.TRUE.equals(replies.get(reply++));
+            }
+            if (inCurrent || inPrevious) {
+                seen.add(merchant);
+            }
+        }
+        return seen;
+    }
+    
+    // Bit i of the merchant by double hashing of the two halves of its hash
+    private long offset(long hash, int i) {
+        return Math.floorMod((int) hash + (long) i * (int) (hash >>> 32), bits);
+    }
+    
+    private static long hash(String merchant) {
+        // FNV-1a, then the MurmurHash3 finalizer so both halves are well mixed
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : merchant.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+    
+    private static Counter admissions(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("merchant.cache.admissions")
+            .description("Merchant mappings offered to the cache, by admission decision")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,146 @@
+package com.fincategorizer.transaction.service;
+
+import com.fincategorizer.transaction.dto.MLCategorizationResponse;
+import com.fincategorizer.transaction.metrics.TransactionMetrics;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resolves merchants through the exact patterns that category-service learns from user
+ * corrections, so they skip the ML call. Lookups, misses included, are cached in
+ * process for cache.pattern-cache-ttl. Pattern hits are counted in memory and written
+ * to usage_count / last_used in one batch per flush interval.
+ */
+@Service
+@Slf4j
+public class MerchantPatternService {
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final LoadingCache<String, Optional<Pattern>> patterns;
+    private final Map<Long, LongAdder> usage = new ConcurrentHashMap<>();
+    
+    public MerchantPatternService(JdbcTemplate jdbcTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${cache.pattern-cache-ttl:3600}") long ttlSeconds,
+                                  @Value("${cache.pattern-cache-max-size:100000}") long maxSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.patterns = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build(this::load);
+        CaffeineCacheMetrics.monitor(meterRegistry, patterns, "merchant-patterns");
+    }
+    
+    /**
+     * The learned pattern's category for the merchant, or null when there is none.
+     */
+    public MLCategorizationResponse match(String merchantNormalized) {
+        Optional<Pattern> pattern;
+        try {
+            pattern = patterns.get(merchantNormalized);
+        } catch (Exception e) {
+            log.error("Error looking up merchant pattern", e);
+            return null;
+        }
+        if (pattern.isEmpty()) {
+            return null;
+        }
+        usage.computeIfAbsent(pattern.get().patternId(), id -> new LongAdder()).increment();
+        return MLCategorizationResponse.builder()
+            .categoryId(pattern.get().categoryId())
+            .confidenceScore(pattern.get().confidence())
+            .source(TransactionMetrics.OUTCOME_PATTERN)
+            .build();
+    }
+    
+    /**
+     * Loads the most used exact patterns into the cache and returns their merchants.
+     */
+    public Set<String> preload(int limit) {
+        Map<String, Optional<Pattern>> loaded = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT pattern_id, merchant_pattern, category_id, confidence FROM merchant_patterns " +
+            "WHERE pattern_type = 'exact' AND is_active = TRUE ORDER BY usage_count DESC LIMIT ?",
+            rs -> {
+                Pattern pattern = new Pattern(rs.getLong("pattern_id"), rs.getInt("category_id"), rs.getDouble("confidence"));
+                // Same choice as load(): the most confident pattern of the merchant
+                loaded.merge(rs.getString("merchant_pattern"), Optional.of(pattern),
+                    (first, second) -> first.get().confidence() >= second.get().confidence() ? first : second);
+            },
+            limit);
+        patterns.putAll(loaded);
+        return loaded.keySet();
+    }
+    
+    /**
+     * Forgets the cached lookup of a merchant whose learned pattern changed, including a
+     * cached miss.
+     */
+    public void invalidate(String merchantNormalized) {
+        patterns.invalidate(merchantNormalized);
+    }
+    
+    /**
+     * Forgets cached patterns of a deleted category; the rows themselves cascade.
+     */
+    public void invalidateCategory(Long categoryId) {
+        patterns.asMap().values().removeIf(pattern ->
+            pattern.isPresent() && pattern.get().categoryId() == categoryId.intValue());
+    }
+    
+    @Scheduled(fixedDelayString = "${cache.pattern-usage-flush-interval:60000}")
+    public void flushUsage() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> updates = new ArrayList<>();
+        usage.forEach((patternId, hits) -> {
+            long count = hits.sumThenReset();
+            if (count > 0) {
+                updates.add(new Object[] {count, now, patternId});
+            }
+        });
+        if (updates.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(
+                "UPDATE merchant_patterns SET usage_count = usage_count + ?, last_used = ? WHERE pattern_id = ?",
+                updates);
+        } catch (Exception e) {
+            // Usage counts are advisory; drop this interval's counts rather than retrying
+            log.warn("Failed to record usage of {} merchant patterns: {}", updates.size(), e.getMessage());
+        }
+    }
+    
+    private Optional<Pattern> load(String merchantNormalized) {
+        List<Pattern> found = jdbcTemplate.query(
+            "SELECT pattern_id, category_id, confidence FROM merchant_patterns " +
+            "WHERE merchant_pattern = ? AND pattern_type = 'exact' AND is_active = TRUE " +
+            "ORDER BY confidence DESC LIMIT 1",
+            (rs, rowNum) -> new Pattern(rs.getLong("pattern_id"), rs.getInt("category_id"), rs.getDouble("confidence")),
+            merchantNormalized);
+        return found.stream().findFirst();
+    }
+    
+    private record Pattern(long patternId, int categoryId, double confidence) {
+    }
+}
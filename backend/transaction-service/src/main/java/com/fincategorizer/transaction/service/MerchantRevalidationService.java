@@ -0,0 +1,59 @@
+package com.fincategorizer.transaction.service;
+
+import com.fincategorizer.transaction.dto.MLCategorizationRequest;
+import com.fincategorizer.transaction.dto.MLCategorizationResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * Asks the ML service again about a merchant whose cached low-confidence answer has
+ * gone stale, while requests keep being served the stale answer. A confident answer
+ * is promoted to the merchant mapping cache once written to Redis; anything else,
+ * including a confident answer not admitted to Redis, refreshes the entry.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MerchantRevalidationService {
+    
+    private final MLInferenceService mlInferenceService;
+    private final CacheService cacheService;
+    private final MeterRegistry meterRegistry;
+    
+    @Async
+    public void revalidate(MLCategorizationRequest request) {
+        String merchant = request.getMerchantName();
+        MLCategorizationResponse response = mlInferenceService.categorize(request);
+        if (response.isFallback()) {
+            // Keep serving the stale answer; the lock expires and a later request retries
+            count("failed");
+            return;
+        }
+        boolean confident = response.getConfidenceScore() >= TransactionService.HIGH_CONFIDENCE_THRESHOLD;
+        if (confident && cacheService.cacheMerchantMapping(merchant, response.getCategoryId().longValue())) {
+            cacheService.removeLowConfidence(merchant);
+            count("promoted");
+        } else {
+            // Also for a confident answer the doorkeeper kept out of Redis: other instances then find it here
+            cacheService.cacheLowConfidence(Map.of(merchant, new CacheService.LowConfidenceAnswer(
+                response.getCategoryId().longValue(), response.getConfidenceScore(), false)));
+            count("refreshed");
+        }
+        log.debug("Revalidated merchant {}: category={}, confidence={}", merchant,
+            response.getCategoryId(), response.getConfidenceScore());
+    }
+    
+    private void count(String result) {
+        Counter.builder("merchant.cache.revalidations")
+            .description("Background re-evaluations of stale low-confidence merchant answers")
+            .tag("result", result)
+            .register(meterRegistry)
+            .increment();
+    }
+}
@@ -0,0 +1,74 @@
+package com.fincategorizer.transaction.service;
+
+import com.fincategorizer.transaction.entity.OutboxEvent;
+import com.fincategorizer.transaction.event.TransactionEvent;
+import com.fincategorizer.transaction.event.TransactionEventPublisher;
+import com.fincategorizer.transaction.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Moves committed outbox rows to the event publisher in event id order.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelay {
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxService outboxService;
+    private final TransactionEventPublisher publisher;
+    
+    @Value("${events.outbox.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${events.outbox.retention:7d}")
+    private Duration retention;
+    
+    @Scheduled(fixedDelayString = "${events.outbox.poll-interval:1000}")
+    @Transactional
+    public void relay() {
+        List<OutboxEvent> pending = outboxEventRepository.findUnpublished(PageRequest.of(0, batchSize));
+        if (pending.isEmpty()) {
+            return;
+        }
+        
+        List<TransactionEvent> events = pending.stream()
+            .map(outboxService::readEvent)
+            .collect(Collectors.toList());
+        
+        try {
+            publisher.publish(events);
+        } catch (Exception e) {
+            // Rows stay unpublished and are retried on the next poll
+            log.error("Failed to publish {} outbox events starting at {}", events.size(),
+                events.get(0).getEventId(), e);
+            return;
+        }
+        
+        outboxEventRepository.markPublished(
+            pending.stream().map(OutboxEvent::getEventId).collect(Collectors.toList()),
+            LocalDateTime.now());
+        log.debug("Relayed outbox events {}..{}", events.get(0).getEventId(),
+            events.get(events.size() - 1).getEventId());
+    }
+    
+    @Scheduled(cron = "${events.outbox.purge-cron:0 0 * * * *}")
+    @Transactional
+    public void purgePublished() {
+        int deleted = outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Purged {} published outbox events", deleted);
+        }
+    }
+}
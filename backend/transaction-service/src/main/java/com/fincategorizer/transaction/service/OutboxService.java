@@ -0,0 +1,79 @@
+package com.fincategorizer.transaction.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fincategorizer.transaction.entity.OutboxEvent;
+import com.fincategorizer.transaction.entity.Transaction;
+import com.fincategorizer.transaction.event.TransactionEvent;
+import com.fincategorizer.transaction.event.TransactionEventType;
+import com.fincategorizer.transaction.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxService {
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    
+    // Outbox rows must commit or roll back together with the transactions change
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(List<Transaction> transactions) {
+        outboxEventRepository.saveAll(transactions.stream()
+            .map(t -> toOutboxEvent(TransactionEventType.TRANSACTION_CREATED, t, null))
+            .collect(Collectors.toList()));
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordUpdated(Transaction transaction, Long previousCategoryId) {
+        outboxEventRepository.save(
+            toOutboxEvent(TransactionEventType.TRANSACTION_UPDATED, transaction, previousCategoryId));
+    }
+    
+    public TransactionEvent readEvent(OutboxEvent outboxEvent) {
+        try {
+            TransactionEvent event = objectMapper.readValue(outboxEvent.getPayload(), TransactionEvent.class);
+            event.setEventId(outboxEvent.getEventId());
+            return event;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt outbox payload for event " + outboxEvent.getEventId(), e);
+        }
+    }
+    
+    private OutboxEvent toOutboxEvent(TransactionEventType type, Transaction transaction, Long previousCategoryId) {
+        TransactionEvent event = TransactionEvent.builder()
+            .eventType(type)
+            .userId(transaction.getUserId())
+            .transactionId(transaction.getTransactionId())
+            .merchantNormalized(transaction.getMerchantNormalized())
+            .amount(transaction.getAmount())
+            .currency(transaction.getCurrency())
+            .transactionDate(transaction.getTransactionDate())
+            .categoryId(transaction.getCategoryId())
+            .previousCategoryId(previousCategoryId)
+            .confidenceScore(transaction.getConfidenceScore())
+            .isUserCorrected(transaction.getIsUserCorrected())
+            .occurredAt(LocalDateTime.now())
+            .build();
+        
+        try {
+            return OutboxEvent.builder()
+                .userId(transaction.getUserId())
+                .transactionId(transaction.getTransactionId())
+                .eventType(type)
+                .payload(objectMapper.writeValueAsString(event))
+                .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize outbox event", e);
+        }
+    }
+}
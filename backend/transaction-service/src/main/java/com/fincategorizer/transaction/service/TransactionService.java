@@ -1,30 +1,59 @@
 package com.fincategorizer.transaction.service;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fincategorizer.transaction.dto.*;
 import com.fincategorizer.transaction.entity.Category;
 import com.fincategorizer.transaction.entity.Transaction;
+import com.fincategorizer.transaction.exception.InvalidPayloadException;
+import com.fincategorizer.transaction.metrics.TransactionMetrics;
 import com.fincategorizer.transaction.repository.CategoryRepository;
 import com.fincategorizer.transaction.repository.TransactionRepository;
+import com.fincategorizer.transaction.util.MappedCsvReader;
+import com.fincategorizer.transaction.util.OccurrenceCounter;
+import com.fincategorizer.transaction.util.TransactionFingerprint;
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,7 +64,46 @@ public class TransactionService {
     private final TransactionRepository transactionRepository;
     private final CategoryRepository categoryRepository;
     private final MLInferenceService mlInferenceService;
+    private final MerchantPatternService merchantPatternService;
+    private final UserMerchantOverrideService userMerchantOverrideService;
+    private final MerchantRevalidationService merchantRevalidationService;
     private final CacheService cacheService;
+    private final OutboxService outboxService;
+    private final TransactionMetrics transactionMetrics;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final Environment environment;
+    
+    @Value("${ingestion.chunk-size:500}")
+    private int ingestChunkSize;
+    
+    @Value("${ingestion.max-reported-rows:1000}")
+    private int maxReportedRows;
+    
+    // Distinct rows per upload numbered exactly; later ones fall back to a fixed-size sketch
+    @Value("${ingestion.occurrence-index.max-keys:20000}")
+    private int occurrenceIndexMaxKeys;
+    
+    @Value("${ingestion.mapped-csv.enabled:true}")
+    private boolean mappedCsvEnabled;
+    
+    @Value("${ingestion.mapped-csv.threshold:16MB}")
+    private DataSize mappedCsvThreshold;
+    
+    @Value("${ingestion.categorization-concurrency:1}")
+    private int categorizationConcurrency;
+    
+    // Categorizes the rows of an ingestion chunk concurrently; null when rows are categorized inline
+    private SimpleAsyncTaskExecutor categorizationExecutor;
+    
+    static final double HIGH_CONFIDENCE_THRESHOLD = 0.85;
+    
+    private static final List<String> CSV_COLUMNS = List.of("merchant", "amount", "date", "currency");
+    private static final List<String> REQUIRED_CSV_COLUMNS = List.of("merchant", "amount", "date");
+    
+    // Rounds of re-checking fingerprints when a concurrent upload inserted rows of the same chunk first
+    private static final int MAX_SAVE_ATTEMPTS = 3;
     
     private static final DateTimeFormatter[] DATE_FORMATTERS = {
         DateTimeFormatter.ofPattern("yyyy-MM-dd"),
@@ -44,62 +112,63 @@ public class TransactionService {
         DateTimeFormatter.ofPattern("dd-MM-yyyy")
     };
     
+    @PostConstruct
+    void initCategorizationExecutor() {
+        if (categorizationConcurrency > 1) {
+            categorizationExecutor = new SimpleAsyncTaskExecutor("batch-categorize-");
+            categorizationExecutor.setVirtualThreads(Threading.VIRTUAL.isActive(environment));
+            categorizationExecutor.setConcurrencyLimit(categorizationConcurrency);
+        }
+    }
+    
     @Transactional
     public TransactionResponse createTransaction(Long userId, TransactionRequest request) {
         log.info("Creating transaction for user: {}, merchant: {}", userId, request.getMerchantName());
+        TransactionMetrics.StageTimer timer = transactionMetrics.startCreate();
         
-        // Normalize merchant name
-        String normalized = normalizeMerchantName(request.getMerchantName());
-        
-        // Get recent transactions for context
-        List<Transaction> recentTransactions = transactionRepository
-            .findTop5ByUserIdOrderByTransactionDateDesc(userId);
-        List<Integer> recentCategoryIds = recentTransactions.stream()
-            .filter(t -> t.getCategoryId() != null)
-            .map(t -> t.getCategoryId().intValue())
-            .collect(Collectors.toList());
-        
-        // Call ML service for categorization
-        MLCategorizationResponse mlResponse = mlInferenceService.categorize(
-            MLCategorizationRequest.builder()
-                .merchantName(normalized)
-                .amount(request.getAmount().doubleValue())
-                .currency(request.getCurrency())
-                .recentCategoryIds(recentCategoryIds)
-                .build()
-        );
-        
-        // Create transaction
-        Transaction transaction = Transaction.builder()
-            .userId(userId)
-            .merchantName(request.getMerchantName())
-            .merchantNormalized(normalized)
-            .amount(request.getAmount())
-            .currency(request.getCurrency())
-            .transactionDate(request.getTransactionDate())
-            .categoryId(mlResponse.getCategoryId().longValue())
-            .confidenceScore(BigDecimal.valueOf(mlResponse.getConfidenceScore()))
-            .isUserCorrected(false)
-            .metadataJson(request.getDescription() != null ? 
-                String.format("{\"description\":\"%s\"}", request.getDescription()) : null)
-            .build();
-        
-        transaction = transactionRepository.save(transaction);
-        
-        // Cache merchant mapping if high confidence
-        if (mlResponse.getConfidenceScore() >= 0.85) {
-            cacheService.cacheMerchantMapping(normalized, mlResponse.getCategoryId().longValue());
+        try {
+            // Normalize merchant name
+            String normalized = normalizeMerchantName(request.getMerchantName());
+            timer.stage("normalize");
+            
+            // Get recent transactions for context
+            List<Integer> recentCategoryIds = findRecentCategoryIds(userId);
+            timer.stage("history_query");
+            
+            MLCategorizationResponse mlResponse = requestCategorization(request, normalized, recentCategoryIds,
+                userMerchantOverrideService.lookup(userId, normalized));
+            timer.stage("ml_call");
+            
+            Transaction transaction = transactionRepository.save(
+                buildTransaction(userId, request, normalized, mlResponse));
+            outboxService.recordCreated(List.of(transaction));
+            timer.stage("insert");
+            
+            if (mlResponse.getSource() == null && !mlResponse.isFallback()) {
+                cacheAnswer(transaction);
+            }
+            timer.stage("cache");
+            
+            TransactionResponse response = convertToResponse(transaction);
+            timer.stage("response");
+            
+            timer.finish(mlResponse.getSource() != null ? mlResponse.getSource()
+                : mlResponse.isFallback() ? TransactionMetrics.OUTCOME_ML_FALLBACK : TransactionMetrics.OUTCOME_ML);
+            return response;
+        } catch (RuntimeException e) {
+            timer.finish(TransactionMetrics.OUTCOME_ERROR);
+            throw e;
         }
-        
-        return convertToResponse(transaction);
     }
     
-    @Transactional
     public BatchUploadResponse uploadBatch(Long userId, MultipartFile file) {
         log.info("Processing batch upload for user: {}, file: {}", userId, file.getOriginalFilename());
         
-        List<BatchUploadResponse.ErrorDetail> errors = new ArrayList<>();
-        int successCount = 0;
+        if (mappedCsvEnabled && file.getSize() >= mappedCsvThreshold.toBytes()) {
+            return uploadBatchMapped(userId, file);
+        }
+        
+        BatchIngestion ingestion = new BatchIngestion(userId, "csv");
         int rowNumber = 0;
         
         try (BufferedReader reader = new BufferedReader(
@@ -113,16 +182,10 @@ public class TransactionService {
             for (CSVRecord record : csvParser) {
                 rowNumber++;
                 try {
-                    TransactionRequest request = parseCSVRecord(record);
-                    createTransaction(userId, request);
-                    successCount++;
+                    ingestion.add(rowNumber, parseCSVRecord(record));
                 } catch (Exception e) {
                     log.error("Error processing row {}: {}", rowNumber, e.getMessage());
-                    errors.add(BatchUploadResponse.ErrorDetail.builder()
-                        .rowNumber(rowNumber)
-                        .merchantName(record.get("merchant"))
-                        .error(e.getMessage())
-                        .build());
+                    ingestion.reject(rowNumber, record.isSet("merchant") ? record.get("merchant") : null, e.getMessage());
                 }
             }
             
@@ -131,12 +194,119 @@ public class TransactionService {
             throw new RuntimeException("Failed to parse CSV file: " + e.getMessage());
         }
         
-        return BatchUploadResponse.builder()
-            .totalRecords(rowNumber)
-            .successCount(successCount)
-            .failureCount(errors.size())
-            .errors(errors)
-            .build();
+        return ingestion.complete();
+    }
+    
+    private BatchUploadResponse uploadBatchMapped(Long userId, MultipartFile file) {
+        log.info("Using memory-mapped CSV reader for {} ({} bytes)", file.getOriginalFilename(), file.getSize());
+        
+        BatchIngestion ingestion = new BatchIngestion(userId, "csv_mapped");
+        int rowNumber = 0;
+        Path spooled = null;
+        
+        try {
+            // Large uploads are already spooled to disk; transferTo moves the part when it can
+            spooled = Files.createTempFile("transactions-upload-", ".csv");
+            file.transferTo(spooled.toFile());
+            
+            try (MappedCsvReader reader = new MappedCsvReader(spooled, CSV_COLUMNS)) {
+                for (String column : REQUIRED_CSV_COLUMNS) {
+                    if (!reader.isMapped(column)) {
+                        throw new RuntimeException("Mapping for " + column + " not found");
+                    }
+                }
+                boolean hasCurrency = reader.isMapped("currency");
+                
+                while (reader.next()) {
+                    rowNumber++;
+                    try {
+                        for (String column : REQUIRED_CSV_COLUMNS) {
+                            requireField(reader.isSet(column), column);
+                        }
+                        requireField(!hasCurrency || reader.isSet("currency"), "currency");
+                        ingestion.add(rowNumber, toTransactionRequest(
+                            reader.get("merchant"),
+                            reader.get("amount"),
+                            hasCurrency ? reader.get("currency") : "INR",
+                            reader.get("date")));
+                    } catch (Exception e) {
+                        log.error("Error processing row {}: {}", rowNumber, e.getMessage());
+                        ingestion.reject(rowNumber, reader.get("merchant"), e.getMessage());
+                    }
+                }
+            }
+            
+        } catch (Exception e) {
+            log.error("Error parsing CSV file", e);
+            throw new RuntimeException("Failed to parse CSV file: " + e.getMessage());
+        } finally {
+            if (spooled != null) {
+                try {
+                    Files.deleteIfExists(spooled);
+                } catch (IOException e) {
+                    log.warn("Could not delete spooled upload {}", spooled, e);
+                }
+            }
+        }
+        
+        return ingestion.complete();
+    }
+    
+    public BatchUploadResponse ingestJson(Long userId, InputStream body) {
+        log.info("Processing bulk JSON ingestion for user: {}", userId);
+        
+        BatchIngestion ingestion = new BatchIngestion(userId, "json");
+        int itemNumber = 0;
+        
+        String parseError = null;
+        
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            JsonToken first;
+            try {
+                first = parser.nextToken();
+            } catch (JsonProcessingException e) {
+                throw new InvalidPayloadException("Malformed JSON payload: " + e.getOriginalMessage());
+            }
+            if (first != JsonToken.START_ARRAY) {
+                throw new InvalidPayloadException("Expected a JSON array of transactions");
+            }
+            
+            try {
+                // Elements are read one at a time so memory stays bounded by the chunk size
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    itemNumber++;
+                    JsonNode node = parser.readValueAsTree();
+                    String merchantName = node.path("merchantName").asText(null);
+                    try {
+                        TransactionRequest request = objectMapper.treeToValue(node, TransactionRequest.class);
+                        Set<ConstraintViolation<TransactionRequest>> violations = validator.validate(request);
+                        if (!violations.isEmpty()) {
+                            ingestion.reject(itemNumber, merchantName, violations.stream()
+                                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                                .sorted()
+                                .collect(Collectors.joining("; ")));
+                            continue;
+                        }
+                        ingestion.add(itemNumber, request);
+                    } catch (Exception e) {
+                        log.error("Error processing item {}: {}", itemNumber, e.getMessage());
+                        ingestion.reject(itemNumber, merchantName, e.getMessage());
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                // Earlier chunks are committed; stop reading and report what was imported
+                log.warn("Malformed JSON payload for user {} at item {}: {}", userId, itemNumber, e.getOriginalMessage());
+                parseError = "Malformed JSON at item " + itemNumber + ": " + e.getOriginalMessage();
+            }
+            
+        } catch (IOException e) {
+            log.error("Error parsing JSON payload", e);
+            throw new RuntimeException("Failed to parse JSON payload: " + e.getMessage());
+        }
+        
+        BatchUploadResponse response = ingestion.complete();
+        response.setParseError(parseError);
+        return response;
     }
     
     @Transactional(readOnly = true)
@@ -166,12 +336,13 @@ public class TransactionService {
         transaction.setCategoryId(newCategoryId);
         transaction.setIsUserCorrected(true);
         transaction = transactionRepository.save(transaction);
+        outboxService.recordUpdated(transaction, oldCategoryId);
         
         // Store correction for self-learning
         mlInferenceService.recordUserCorrection(transactionId, oldCategoryId, newCategoryId, userId);
         
-        // Update cache
-        cacheService.cacheMerchantMapping(transaction.getMerchantNormalized(), newCategoryId);
+        // Remember the choice for this user only; global mappings come from ML and learned patterns
+        userMerchantOverrideService.recordOverride(userId, transaction.getMerchantNormalized(), newCategoryId);
         
         log.info("Updated transaction {} category from {} to {}", transactionId, oldCategoryId, newCategoryId);
         
@@ -179,16 +350,31 @@ public class TransactionService {
     }
     
     private TransactionRequest parseCSVRecord(CSVRecord record) {
-        String merchantName = record.get("merchant");
-        BigDecimal amount = new BigDecimal(record.get("amount"));
-        String currency = record.isMapped("currency") ? record.get("currency") : "INR";
-        LocalDate date = parseDate(record.get("date"));
-        
+        for (String column : REQUIRED_CSV_COLUMNS) {
+            requireField(record.isSet(column), column);
+        }
+        requireField(!record.isMapped("currency") || record.isSet("currency"), "currency");
+        return toTransactionRequest(
+            record.get("merchant"),
+            record.get("amount"),
+            record.isMapped("currency") ? record.get("currency") : "INR",
+            record.get("date"));
+    }
+    
+    // A row with fewer fields than the header has no value for the trailing columns
+    private static void requireField(boolean present, String column) {
+        if (!present) {
+            throw new RuntimeException("Row is missing the " + column + " field");
+        }
+    }
+    
+    private TransactionRequest toTransactionRequest(String merchantName, String amount,
+                                                    String currency, String date) {
         return TransactionRequest.builder()
             .merchantName(merchantName)
-            .amount(amount)
+            .amount(new BigDecimal(amount))
             .currency(currency)
-            .transactionDate(date)
+            .transactionDate(parseDate(date))
             .build();
     }
     
@@ -203,6 +389,116 @@ public class TransactionService {
         throw new RuntimeException("Unable to parse date: " + dateStr);
     }
     
+    private List<Integer> findRecentCategoryIds(Long userId) {
+        return transactionRepository.findTop5ByUserIdOrderByTransactionDateDesc(userId).stream()
+            .filter(t -> t.getCategoryId() != null)
+            .map(t -> t.getCategoryId().intValue())
+            .collect(Collectors.toList());
+    }
+    
+    private Categorized categorize(Long userId, TransactionRequest request, String normalized,
+                                   List<Integer> recentCategoryIds, CacheService.MerchantLookup cached) {
+        MLCategorizationResponse response = requestCategorization(request, normalized, recentCategoryIds, cached);
+        return new Categorized(buildTransaction(userId, request, normalized, response),
+            response.getSource() == null && !response.isFallback());
+    }
+    
+    private CompletableFuture<Categorized> categorizeAsync(Long userId, PendingRow row, List<Integer> recentCategoryIds,
+                                                           CacheService.MerchantLookup cached) {
+        if (categorizationExecutor == null) {
+            try {
+                return CompletableFuture.completedFuture(
+                    categorize(userId, row.request(), row.normalized(), recentCategoryIds, cached));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return CompletableFuture.supplyAsync(
+            () -> categorize(userId, row.request(), row.normalized(), recentCategoryIds, cached), categorizationExecutor);
+    }
+    
+    private MLCategorizationResponse requestCategorization(TransactionRequest request, String normalized,
+                                                           List<Integer> recentCategoryIds,
+                                                           CacheService.MerchantLookup cached) {
+        // The user's own choice for the merchant, then the global mapping
+        if (cached.userCategoryId() != null) {
+            return MLCategorizationResponse.builder()
+                .categoryId(cached.userCategoryId().intValue())
+                .confidenceScore(1.0)
+                .source(TransactionMetrics.OUTCOME_USER_OVERRIDE)
+                .build();
+        }
+        if (cached.globalCategoryId() != null) {
+            // Only mappings at or above the threshold are cached
+            return MLCategorizationResponse.builder()
+                .categoryId(cached.globalCategoryId().intValue())
+                .confidenceScore(HIGH_CONFIDENCE_THRESHOLD)
+                .source(TransactionMetrics.OUTCOME_CACHE_HIT)
+                .build();
+        }
+        
+        // Merchants with a pattern learned from user corrections skip the ML call
+        MLCategorizationResponse learned = merchantPatternService.match(normalized);
+        if (learned != null) {
+            return learned;
+        }
+        
+        MLCategorizationRequest mlRequest = MLCategorizationRequest.builder()
+            .merchantName(normalized)
+            .amount(request.getAmount().doubleValue())
+            .currency(request.getCurrency())
+            .recentCategoryIds(recentCategoryIds)
+            .build();
+        
+        // Merchants the ML service could not classify confidently reuse its last answer,
+        // which is re-evaluated in the background once stale
+        CacheService.LowConfidenceAnswer lowConfidence = cached.lowConfidence();
+        if (lowConfidence != null) {
+            if (lowConfidence.stale() && cacheService.tryLockRevalidation(normalized)) {
+                merchantRevalidationService.revalidate(mlRequest);
+            }
+            return MLCategorizationResponse.builder()
+                .categoryId(lowConfidence.categoryId().intValue())
+                .confidenceScore(lowConfidence.confidence())
+                .source(TransactionMetrics.OUTCOME_LOW_CONFIDENCE_CACHE)
+                .build();
+        }
+        
+        // Call ML service for categorization
+        return mlInferenceService.categorize(mlRequest);
+    }
+    
+    private Transaction buildTransaction(Long userId, TransactionRequest request, String normalized,
+                                         MLCategorizationResponse mlResponse) {
+        return Transaction.builder()
+            .userId(userId)
+            .merchantName(request.getMerchantName())
+            .merchantNormalized(normalized)
+            .amount(request.getAmount())
+            .currency(request.getCurrency())
+            .transactionDate(request.getTransactionDate())
+            .categoryId(mlResponse.getCategoryId().longValue())
+            .confidenceScore(BigDecimal.valueOf(mlResponse.getConfidenceScore()))
+            .isUserCorrected(false)
+            .metadataJson(request.getDescription() != null ? 
+                String.format("{\"description\":\"%s\"}", request.getDescription()) : null)
+            .build();
+    }
+    
+    private void cacheAnswer(Transaction transaction) {
+        // Cache merchant mapping if high confidence, otherwise in the short-lived low-confidence tier
+        if (transaction.getConfidenceScore().doubleValue() >= HIGH_CONFIDENCE_THRESHOLD) {
+            cacheService.cacheMerchantMapping(transaction.getMerchantNormalized(), transaction.getCategoryId());
+        } else {
+            cacheService.cacheLowConfidence(Map.of(transaction.getMerchantNormalized(), lowConfidenceAnswer(transaction)));
+        }
+    }
+    
+    private static CacheService.LowConfidenceAnswer lowConfidenceAnswer(Transaction transaction) {
+        return new CacheService.LowConfidenceAnswer(
+            transaction.getCategoryId(), transaction.getConfidenceScore().doubleValue(), false);
+    }
+    
     private String normalizeMerchantName(String merchantName) {
         return merchantName.toLowerCase()
             .replaceAll("[^a-z0-9\\s]", "")
@@ -239,4 +535,196 @@ public class TransactionService {
             .createdAt(transaction.getCreatedAt())
             .build();
     }
+    
+    // A categorized row; only answers fresh from the ML service are cached
+    private record Categorized(Transaction transaction, boolean cacheable) {
+    }
+    
+    private record PendingRow(int rowNumber, TransactionRequest request, String normalized, String fingerprint) {
+    }
+    
+    /**
+     * Accumulates ingested rows and flushes them in chunks: one fingerprint lookup per
+     * chunk drops rows that were already imported, and only the remaining rows are
+     * categorized and persisted (each chunk in its own database transaction).
+     */
+    private class BatchIngestion {
+        
+        private final Long userId;
+        private final String source;
+        private final long startNanos = System.nanoTime();
+        private final List<PendingRow> pending = new ArrayList<>();
+        private final List<BatchUploadResponse.ErrorDetail> errors = new ArrayList<>();
+        private final List<BatchUploadResponse.DuplicateDetail> duplicates = new ArrayList<>();
+        private final OccurrenceCounter occurrences = new OccurrenceCounter(occurrenceIndexMaxKeys);
+        private int totalRecords;
+        private int successCount;
+        private int failureCount;
+        private int duplicateCount;
+        
+        BatchIngestion(Long userId, String source) {
+            this.userId = userId;
+            this.source = source;
+        }
+        
+        void add(int rowNumber, TransactionRequest request) {
+            totalRecords++;
+            String normalized = normalizeMerchantName(request.getMerchantName());
+            String baseKey = TransactionFingerprint.baseKey(userId, request.getTransactionDate(),
+                request.getAmount(), request.getCurrency(), normalized);
+            int occurrence = occurrences.next(baseKey);
+            
+            pending.add(new PendingRow(rowNumber, request, normalized,
+                TransactionFingerprint.compute(baseKey, occurrence)));
+            if (pending.size() >= ingestChunkSize) {
+                flush();
+            }
+        }
+        
+        void reject(int rowNumber, String merchantName, String error) {
+            totalRecords++;
+            recordError(rowNumber, merchantName, error);
+        }
+        
+        private void recordError(int rowNumber, String merchantName, String error) {
+            failureCount++;
+            if (errors.size() < maxReportedRows) {
+                errors.add(BatchUploadResponse.ErrorDetail.builder()
+                    .rowNumber(rowNumber)
+                    .merchantName(merchantName)
+                    .error(error)
+                    .build());
+            }
+        }
+        
+        BatchUploadResponse complete() {
+            flush();
+            transactionMetrics.recordIngestion(source, successCount, duplicateCount, failureCount,
+                System.nanoTime() - startNanos);
+            log.info("Batch ingestion for user {} finished: {} rows, {} imported, {} duplicates, {} failed",
+                userId, totalRecords, successCount, duplicateCount, failureCount);
+            
+            return BatchUploadResponse.builder()
+                .totalRecords(totalRecords)
+                .successCount(successCount)
+                .failureCount(failureCount)
+                .duplicateCount(duplicateCount)
+                .errors(errors)
+                .duplicates(duplicates)
+                .build();
+        }
+        
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<PendingRow> rows = new ArrayList<>(pending);
+            pending.clear();
+            
+            Set<String> existing = new HashSet<>(transactionRepository.findExistingFingerprints(
+                userId, rows.stream().map(PendingRow::fingerprint).collect(Collectors.toList())));
+            
+            List<PendingRow> fresh = new ArrayList<>(rows.size());
+            for (PendingRow row : rows) {
+                if (existing.contains(row.fingerprint())) {
+                    recordDuplicate(row);
+                } else {
+                    fresh.add(row);
+                }
+            }
+            if (fresh.isEmpty()) {
+                return;
+            }
+            
+            List<Integer> recentCategoryIds = findRecentCategoryIds(userId);
+            // Cached mappings of the whole chunk in one Redis round trip
+            Map<String, CacheService.MerchantLookup> cached = userMerchantOverrideService.lookupAll(
+                userId, fresh.stream().map(PendingRow::normalized).collect(Collectors.toList()));
+            List<PendingRow> categorized = new ArrayList<>(fresh.size());
+            List<Transaction> transactions = new ArrayList<>(fresh.size());
+            List<Transaction> cacheable = new ArrayList<>(fresh.size());
+            List<CompletableFuture<Categorized>> results = new ArrayList<>(fresh.size());
+            for (PendingRow row : fresh) {
+                results.add(categorizeAsync(userId, row, recentCategoryIds, cached.get(row.normalized())));
+            }
+            for (int i = 0; i < fresh.size(); i++) {
+                PendingRow row = fresh.get(i);
+                try {
+                    Categorized result = results.get(i).join();
+                    Transaction transaction = result.transaction();
+                    transaction.setIngestFingerprint(row.fingerprint());
+                    transactions.add(transaction);
+                    if (result.cacheable()) {
+                        cacheable.add(transaction);
+                    }
+                    categorized.add(row);
+                } catch (Exception e) {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    log.error("Error processing row {}: {}", row.rowNumber(), cause.getMessage());
+                    recordError(row.rowNumber(), row.request().getMerchantName(), cause.getMessage());
+                }
+            }
+            
+            try {
+                List<Transaction> saved = save(categorized, transactions);
+                successCount += saved.size();
+                cacheable.retainAll(saved);
+                Map<Boolean, List<Transaction>> byConfidence = cacheable.stream().collect(Collectors.partitioningBy(
+                    transaction -> transaction.getConfidenceScore().doubleValue() >= HIGH_CONFIDENCE_THRESHOLD));
+                cacheService.cacheMerchantMappings(byConfidence.get(true).stream()
+                    .collect(Collectors.toMap(Transaction::getMerchantNormalized, Transaction::getCategoryId,
+                        (first, second) -> second)));
+                cacheService.cacheLowConfidence(byConfidence.get(false).stream()
+                    .collect(Collectors.toMap(Transaction::getMerchantNormalized, TransactionService::lowConfidenceAnswer,
+                        (first, second) -> second)));
+            } catch (Exception e) {
+                log.error("Error persisting batch chunk for user {}: {}", userId, e.getMessage());
+                for (PendingRow row : categorized) {
+                    recordError(row.rowNumber(), row.request().getMerchantName(), "Failed to save: " + e.getMessage());
+                }
+            }
+        }
+        
+        /**
+         * Persists the chunk in one transaction. When another upload of the same statement
+         * inserted some of its rows first, the unique fingerprint key rejects the chunk;
+         * those rows are then reported as duplicates and the rest is saved again.
+         * Rows that end up as duplicates are removed from both lists.
+         */
+        private List<Transaction> save(List<PendingRow> rows, List<Transaction> transactions) {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    transactionTemplate.executeWithoutResult(status ->
+                        outboxService.recordCreated(transactionRepository.saveAll(transactions)));
+                    return transactions;
+                } catch (DataIntegrityViolationException e) {
+                    Set<String> taken = new HashSet<>(transactionRepository.findExistingFingerprints(
+                        userId, rows.stream().map(PendingRow::fingerprint).collect(Collectors.toList())));
+                    if (taken.isEmpty() || attempt == MAX_SAVE_ATTEMPTS) {
+                        throw e;
+                    }
+                    for (int i = rows.size() - 1; i >= 0; i--) {
+                        if (taken.contains(rows.get(i).fingerprint())) {
+                            recordDuplicate(rows.remove(i));
+                            transactions.remove(i);
+                        }
+                    }
+                    // Identities assigned by the rolled back inserts
+                    transactions.forEach(transaction -> transaction.setTransactionId(null));
+                    log.info("{} rows of a chunk for user {} were inserted concurrently; saving the rest",
+                        taken.size(), userId);
+                }
+            }
+        }
+        
+        private void recordDuplicate(PendingRow row) {
+            duplicateCount++;
+            if (duplicates.size() < maxReportedRows) {
+                duplicates.add(BatchUploadResponse.DuplicateDetail.builder()
+                    .rowNumber(row.rowNumber())
+                    .merchantName(row.request().getMerchantName())
+                    .build());
+            }
+        }
+    }
 }
@@ -0,0 +1,115 @@
+package com.fincategorizer.transaction.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A user's own category per merchant, set by correcting a transaction. Persisted in
+ * user_merchant_overrides and cached as one Redis hash per user, which is loaded in
+ * full on the first lookup that finds it missing.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserMerchantOverrideService {
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheService cacheService;
+    
+    /**
+     * Saves the override in the current transaction and caches it once that commits.
+     */
+    public void recordOverride(Long userId, String merchantNormalized, Long categoryId) {
+        jdbcTemplate.update(
+            "INSERT INTO user_merchant_overrides (user_id, merchant_normalized, category_id) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE category_id = VALUES(category_id)",
+            userId, merchantNormalized, categoryId);
+        
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cacheService.cacheUserOverride(userId, merchantNormalized, categoryId);
+                }
+            });
+        } else {
+            cacheService.cacheUserOverride(userId, merchantNormalized, categoryId);
+        }
+    }
+    
+    /**
+     * The user's override and the global mapping of the merchant. The override comes
+     * from Redis, from the user's rows when the hash is not loaded yet, or from the
+     * table alone when Redis is unavailable.
+     */
+    public CacheService.MerchantLookup lookup(Long userId, String merchantNormalized) {
+        return lookupAll(userId, List.of(merchantNormalized)).get(merchantNormalized);
+    }
+    
+    /**
+     * lookup for many merchants of one user, with one pipelined Redis round trip plus at
+     * most one query.
+     */
+    public Map<String, CacheService.MerchantLookup> lookupAll(Long userId, Collection<String> merchantsNormalized) {
+        List<String> merchants = List.copyOf(new LinkedHashSet<>(merchantsNormalized));
+        if (merchants.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, CacheService.MerchantLookup> cached = cacheService.lookupMerchants(userId, merchants);
+        if (cached == null) {
+            Map<String, Long> overrides = new HashMap<>();
+            jdbcTemplate.query(
+                "SELECT merchant_normalized, category_id FROM user_merchant_overrides " +
+                "WHERE user_id = ? AND merchant_normalized IN (" + String.join(", ", Collections.nCopies(merchants.size(), "?")) + ")",
+                rs -> {
+                    overrides.put(rs.getString("merchant_normalized"), rs.getLong("category_id"));
+                },
+                concat(userId, merchants));
+            return withOverrides(merchants, overrides, Map.of());
+        }
+        if (cached.get(merchants.get(0)).userOverridesLoaded()) {
+            return cached;
+        }
+        
+        Map<String, Long> overrides = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT merchant_normalized, category_id FROM user_merchant_overrides WHERE user_id = ?",
+            rs -> {
+                overrides.put(rs.getString("merchant_normalized"), rs.getLong("category_id"));
+            },
+            userId);
+        cacheService.cacheUserOverrides(userId, overrides);
+        return withOverrides(merchants, overrides, cached);
+    }
+    
+    private static Map<String, CacheService.MerchantLookup> withOverrides(List<String> merchants, Map<String, Long> overrides,
+                                                                          Map<String, CacheService.MerchantLookup> cached) {
+        Map<String, CacheService.MerchantLookup> lookups = new HashMap<>();
+        for (String merchant : merchants) {
+            CacheService.MerchantLookup lookup = cached.get(merchant);
+            lookups.put(merchant, new CacheService.MerchantLookup(overrides.get(merchant), true,
+                lookup != null ? lookup.globalCategoryId() : null, lookup != null ? lookup.lowConfidence() : null));
+        }
+        return lookups;
+    }
+    
+    private static Object[] concat(Long userId, List<String> merchants) {
+        Object[] args = new Object[merchants.size() + 1];
+        args[0] = userId;
+        for (int i = 0; i < merchants.size(); i++) {
+            args[i + 1] = merchants.get(i);
+        }
+        return args;
+    }
+}
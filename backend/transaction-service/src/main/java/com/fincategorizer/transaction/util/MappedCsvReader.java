@@ -0,0 +1,297 @@
+package com.fincategorizer.transaction.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 CSV reader that scans a memory-mapped file directly.
+ *
+ * Only the columns requested up front are ever decoded into {@link String}s; every
+ * other field is skipped by scanning for delimiters over the raw bytes. This is safe
+ * for UTF-8 input because no multi-byte sequence contains a comma, quote or line
+ * break byte. Files larger than the mapping window are mapped region by region.
+ */
+public final class MappedCsvReader implements Closeable {
+
+    private static final long DEFAULT_WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private static final byte COMMA = ',';
+    private static final byte QUOTE = '"';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final long windowSize;
+    private final List<String> columns;
+    private final int[] columnIndexes;
+    private final int maxColumnIndex;
+
+    // Per-record field bounds (relative to the current window), indexed like columns
+    private final int[] fieldStart;
+    private final int[] fieldEnd;
+    private final boolean[] fieldQuoted;
+    private final String[] decoded;
+
+    private MappedByteBuffer buffer;
+    private long windowOffset;
+    private int position;
+    private byte[] scratch = new byte[256];
+
+    public MappedCsvReader(Path path, List<String> columns) throws IOException {
+        this(path, columns, DEFAULT_WINDOW_SIZE);
+    }
+
+    MappedCsvReader(Path path, List<String> columns, long windowSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.windowSize = windowSize;
+        this.columns = List.copyOf(columns);
+        this.fieldStart = new int[columns.size()];
+        this.fieldEnd = new int[columns.size()];
+        this.fieldQuoted = new boolean[columns.size()];
+        this.decoded = new String[columns.size()];
+        mapWindow(0);
+        skipByteOrderMark();
+
+        this.columnIndexes = readHeader();
+        this.maxColumnIndex = Arrays.stream(columnIndexes).max().orElse(-1);
+    }
+
+    /**
+     * Advances to the next record. Blank lines are skipped.
+     *
+     * @return false once the end of the file is reached
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            if (windowOffset + position >= fileSize) {
+                return false;
+            }
+            int start = position;
+            int end = scanRecord();
+            if (end < 0) {
+                // Record crosses the mapped window: remap starting at the record and rescan
+                if (start == 0) {
+                    throw new IOException("CSV record larger than " + windowSize + " bytes");
+                }
+                mapWindow(windowOffset + start);
+                continue;
+            }
+            if (end > start) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the value of a requested column for the current record, or null when the
+     * column is absent from the header or the record is too short.
+     */
+    public String get(String column) {
+        int slot = columns.indexOf(column);
+        if (slot < 0) {
+            throw new IllegalArgumentException("Column was not requested: " + column);
+        }
+        if (decoded[slot] == null && fieldStart[slot] >= 0) {
+            decoded[slot] = decode(fieldStart[slot], fieldEnd[slot], fieldQuoted[slot]);
+        }
+        return decoded[slot];
+    }
+
+    /**
+     * Whether the current record has a field for a requested column, which is false for
+     * columns absent from the header and for records too short to reach the column.
+     */
+    public boolean isSet(String column) {
+        int slot = columns.indexOf(column);
+        return slot >= 0 && fieldStart[slot] >= 0;
+    }
+
+    public boolean isMapped(String column) {
+        int slot = columns.indexOf(column);
+        return slot >= 0 && columnIndexes[slot] >= 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer = null;
+        channel.close();
+    }
+
+    private int[] readHeader() throws IOException {
+        int[] indexes = new int[columns.size()];
+        Arrays.fill(indexes, -1);
+        if (fileSize == 0) {
+            return indexes;
+        }
+
+        int fieldIndex = 0;
+        int limit = buffer.limit();
+        while (position < limit) {
+            int start = position;
+            boolean quoted = buffer.get(position) == QUOTE;
+            int end = quoted ? skipQuoted(position + 1) : skipUnquoted(position);
+            if (end < 0) {
+                throw new IOException("CSV header is not terminated within the first " + windowSize + " bytes");
+            }
+            String name = decode(start, end, quoted).trim();
+            int slot = columns.indexOf(name);
+            if (slot >= 0 && indexes[slot] < 0) {
+                indexes[slot] = fieldIndex;
+            }
+            fieldIndex++;
+            position = end;
+            if (position >= limit || buffer.get(position) != COMMA) {
+                position = skipLineBreak(position);
+                break;
+            }
+            position++;
+        }
+        return indexes;
+    }
+
+    /**
+     * Scans one record starting at the current position, recording the bounds of the
+     * requested columns. Returns the end offset of the record, or -1 when the record
+     * is not complete within the current window.
+     */
+    private int scanRecord() {
+        Arrays.fill(fieldStart, -1);
+        Arrays.fill(decoded, null);
+
+        int limit = buffer.limit();
+        boolean lastWindow = windowOffset + limit >= fileSize;
+        int pos = position;
+        int fieldIndex = 0;
+
+        while (true) {
+            if (pos >= limit) {
+                if (!lastWindow) {
+                    return -1;
+                }
+                break;
+            }
+            boolean quoted = buffer.get(pos) == QUOTE;
+            int end = quoted ? skipQuoted(pos + 1) : skipUnquoted(pos);
+            if (end < 0) {
+                if (!lastWindow) {
+                    return -1;
+                }
+                end = limit;
+            }
+            if (fieldIndex <= maxColumnIndex) {
+                for (int slot = 0; slot < columnIndexes.length; slot++) {
+                    if (columnIndexes[slot] == fieldIndex) {
+                        fieldStart[slot] = pos;
+                        fieldEnd[slot] = end;
+                        fieldQuoted[slot] = quoted;
+                    }
+                }
+            }
+            fieldIndex++;
+            pos = end;
+            if (pos < limit && buffer.get(pos) == COMMA) {
+                pos++;
+                continue;
+            }
+            break;
+        }
+
+        int recordEnd = pos;
+        position = skipLineBreak(pos);
+        if (!lastWindow && position >= limit && recordEnd == limit) {
+            return -1;
+        }
+        return recordEnd;
+    }
+
+    private int skipUnquoted(int pos) {
+        int limit = buffer.limit();
+        while (pos < limit) {
+            byte b = buffer.get(pos);
+            if (b == COMMA || b == LF || b == CR) {
+                return pos;
+            }
+            pos++;
+        }
+        return windowOffset + limit >= fileSize ? limit : -1;
+    }
+
+    private int skipQuoted(int pos) {
+        int limit = buffer.limit();
+        while (pos < limit) {
+            if (buffer.get(pos) == QUOTE) {
+                if (pos + 1 < limit && buffer.get(pos + 1) == QUOTE) {
+                    pos += 2;
+                    continue;
+                }
+                if (pos + 1 >= limit && windowOffset + limit < fileSize) {
+                    return -1;
+                }
+                return skipUnquoted(pos + 1);
+            }
+            pos++;
+        }
+        return -1;
+    }
+
+    private int skipLineBreak(int pos) {
+        int limit = buffer.limit();
+        if (pos < limit && buffer.get(pos) == CR) {
+            pos++;
+        }
+        if (pos < limit && buffer.get(pos) == LF) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private String decode(int start, int end, boolean quoted) {
+        int length = end - start;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(start, scratch, 0, length);
+        if (!quoted) {
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        // Strip the surrounding quotes and collapse escaped "" pairs
+        int out = 0;
+        int closing = length - 1;
+        while (closing > 0 && scratch[closing] != QUOTE) {
+            closing--;
+        }
+        for (int i = 1; i < closing; i++) {
+            scratch[out++] = scratch[i];
+            if (scratch[i] == QUOTE && i + 1 < closing && scratch[i + 1] == QUOTE) {
+                i++;
+            }
+        }
+        return new String(scratch, 0, out, StandardCharsets.UTF_8);
+    }
+
+    private void skipByteOrderMark() {
+        if (buffer.limit() >= 3
+                && (buffer.get(0) & 0xFF) == 0xEF
+                && (buffer.get(1) & 0xFF) == 0xBB
+                && (buffer.get(2) & 0xFF) == 0xBF) {
+            position = 3;
+        }
+    }
+
+    private void mapWindow(long offset) throws IOException {
+        long size = Math.min(windowSize, fileSize - offset);
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+        windowOffset = offset;
+        position = 0;
+    }
+}
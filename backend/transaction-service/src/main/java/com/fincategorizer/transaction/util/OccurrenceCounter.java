@@ -0,0 +1,79 @@
+package com.fincategorizer.transaction.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Numbers repeated identical rows within one upload (0 for the first, 1 for the second,
+ * and so on) in bounded memory.
+ *
+ * The first {@code maxKeys} distinct rows are counted exactly. Rows seen after that are
+ * counted in a fixed-size count-min sketch, whose estimate can only be too high: numbers
+ * stay unique per row within the upload, but a row that shares all its cells with others
+ * may get a higher number than it did in an earlier upload, and a re-upload of it is then
+ * imported again instead of being reported as a duplicate.
+ */
+public final class OccurrenceCounter {
+
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_WIDTH = 1 << 16;
+
+    private final int maxKeys;
+    private final Map<String, Integer> exact = new HashMap<>();
+    private int[][] sketch;
+
+    public OccurrenceCounter(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Counts the row and returns how many identical rows came before it.
+     */
+    public int next(String key) {
+        Integer seen = exact.get(key);
+        if (seen != null) {
+            exact.put(key, seen + 1);
+            return seen;
+        }
+        if (exact.size() < maxKeys) {
+            exact.put(key, 1);
+            return 0;
+        }
+        return nextInSketch(key);
+    }
+
+    /**
+     * Keys held exactly, never more than {@code maxKeys}.
+     */
+    public int trackedKeys() {
+        return exact.size();
+    }
+
+    // Every cell of the key is incremented, so its minimum grows by exactly one per row of the key
+    private int nextInSketch(String key) {
+        if (sketch == null) {
+            sketch = new int[SKETCH_DEPTH][SKETCH_WIDTH];
+        }
+        long hash = hash(key);
+        int estimate = Integer.MAX_VALUE;
+        for (int i = 0; i < SKETCH_DEPTH; i++) {
+            int cell = (int) (hash + (long) i * (hash >>> 32)) & (SKETCH_WIDTH - 1);
+            estimate = Math.min(estimate, sketch[i][cell]++);
+        }
+        return estimate;
+    }
+
+    private static long hash(String key) {
+        // FNV-1a over the chars, then the MurmurHash3 finalizer so both halves are well mixed
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,39 @@
+package com.fincategorizer.transaction.util;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * Stable content fingerprint for ingested transaction rows.
+ *
+ * The same statement row always yields the same fingerprint, so re-uploading an
+ * overlapping statement can be detected before any categorization work is done.
+ * The occurrence index distinguishes genuinely repeated rows within one upload
+ * (two identical coffees on the same day).
+ */
+public final class TransactionFingerprint {
+
+    private TransactionFingerprint() {
+    }
+
+    public static String baseKey(Long userId, LocalDate date, BigDecimal amount,
+                                 String currency, String merchantNormalized) {
+        return userId + "|" + date + "|" + amount.stripTrailingZeros().toPlainString() + "|" +
+            currency.toUpperCase(Locale.ROOT) + "|" + merchantNormalized;
+    }
+
+    public static String compute(String baseKey, int occurrence) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((baseKey + "|" + occurrence).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.fincategorizer.transaction.event;
+
+import com.fincategorizer.transaction.service.CacheService;
+import com.fincategorizer.transaction.service.LocalMerchantCache;
+import com.fincategorizer.transaction.service.MerchantPatternService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CategoryEventConsumerTest {
+
+    private static final String STREAM = "category-events";
+    private static final String DEAD_LETTERS = "category-events-dead";
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final StreamOperations<String, Object, Object> streams = mock(StreamOperations.class);
+    private final CacheService cacheService = mock(CacheService.class);
+    private final LocalMerchantCache localMerchantCache = mock(LocalMerchantCache.class);
+    private final MerchantPatternService merchantPatternService = mock(MerchantPatternService.class);
+    private final CategoryEventConsumer consumer =
+        new CategoryEventConsumer(redisTemplate, cacheService, localMerchantCache, merchantPatternService);
+
+    // An in-memory stream with one consumer group of one consumer
+    private final List<MapRecord<String, Object, Object>> entries = new ArrayList<>();
+    private final Set<RecordId> pending = new LinkedHashSet<>();
+    private final Map<RecordId, Long> deliveries = new HashMap<>();
+    private final List<Map<Object, Object>> deadLetters = new ArrayList<>();
+    private int delivered;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ReflectionTestUtils.setField(consumer, "stream", STREAM);
+        ReflectionTestUtils.setField(consumer, "group", "transaction-service");
+        ReflectionTestUtils.setField(consumer, "consumerName", "test");
+        ReflectionTestUtils.setField(consumer, "batchSize", 100);
+        ReflectionTestUtils.setField(consumer, "maxDeliveries", 3L);
+        ReflectionTestUtils.setField(consumer, "deadLetterStream", DEAD_LETTERS);
+        when(redisTemplate.opsForStream()).thenReturn(streams);
+
+        when(streams.read(any(Consumer.class), any(StreamReadOptions.class), any(StreamOffset[].class)))
+            .thenAnswer(call -> {
+                ReadOffset offset = call.getArgument(2, StreamOffset.class).getOffset();
+                List<MapRecord<String, Object, Object>> batch = new ArrayList<>();
+                if (offset.equals(ReadOffset.lastConsumed())) {
+                    for (; delivered < entries.size(); delivered++) {
+                        pending.add(entries.get(delivered).getId());
+                        batch.add(entries.get(delivered));
+                    }
+                } else {
+                    entries.stream().filter(entry -> pending.contains(entry.getId())).forEach(batch::add);
+                }
+                batch.forEach(entry -> deliveries.merge(entry.getId(), 1L, Long::sum));
+                return batch;
+            });
+        when(streams.acknowledge(anyString(), anyString(), any(RecordId[].class))).thenAnswer(call -> {
+            pending.remove(call.getArgument(2, RecordId.class));
+            return 1L;
+        });
+        when(streams.pending(anyString(), anyString(), any(Range.class), anyLong())).thenAnswer(call -> {
+            RecordId id = RecordId.of((String) call.getArgument(2, Range.class).getLowerBound().getValue().get());
+            return new PendingMessages("transaction-service", List.of(new PendingMessage(
+                id, Consumer.from("transaction-service", "test"), Duration.ZERO, deliveries.get(id))));
+        });
+        when(streams.add(any(MapRecord.class))).thenAnswer(call -> {
+            MapRecord<String, Object, Object> record = call.getArgument(0);
+            assertThat(record.getStream()).isEqualTo(DEAD_LETTERS);
+            deadLetters.add(record.getValue());
+            return RecordId.autoGenerate();
+        });
+        when(streams.reverseRange(eq(STREAM), any(Range.class), any(Limit.class))).thenReturn(List.of());
+        // This instance's own read, from after the given entry
+        when(streams.read(any(StreamReadOptions.class), any(StreamOffset[].class))).thenAnswer(call -> {
+            String after = call.getArgument(1, StreamOffset.class).getOffset().getOffset();
+            return entries.stream()
+                .filter(entry -> compare(entry.getId(), RecordId.of(after)) > 0)
+                .toList();
+        });
+    }
+
+    @Test
+    void deadLettersMalformedEntryAndHandlesTheNextOne() {
+        append(Map.of("eventType", "CATEGORY_DELETED", "categoryId", "not a number", "userId", "7"));
+        append(Map.of("eventType", "CATEGORY_DELETED", "categoryId", "42", "userId", "7"));
+
+        consumer.poll();
+
+        verify(cacheService).invalidateCategory(42L);
+        verify(cacheService).invalidateUserOverrides(7L);
+        assertThat(pending).isEmpty();
+        assertThat(deadLetters).singleElement().satisfies(fields -> {
+            assertThat(fields).containsEntry("categoryId", "not a number").containsEntry("sourceId", "1-0");
+        });
+    }
+
+    @Test
+    void retriesFailingEntryUntilMaxDeliveriesThenDeadLettersIt() {
+        doThrow(new IllegalStateException("boom")).when(cacheService).invalidateCache("swiggy");
+        append(Map.of("eventType", "MERCHANT_PATTERN_CHANGED", "merchant", "swiggy"));
+        append(Map.of("eventType", "MERCHANT_PATTERN_CHANGED", "merchant", "zomato"));
+
+        consumer.poll();
+        consumer.poll();
+
+        assertThat(pending).extracting(RecordId::getValue).containsExactly("1-0");
+        assertThat(deadLetters).isEmpty();
+
+        consumer.poll();
+
+        assertThat(pending).isEmpty();
+        assertThat(deadLetters).singleElement().satisfies(fields ->
+            assertThat(fields).containsEntry("merchant", "swiggy").containsEntry("error", "boom"));
+        verify(cacheService, times(3)).invalidateCache("swiggy");
+        verify(cacheService).invalidateCache("zomato");
+        verify(cacheService, never()).invalidateCategory(any());
+    }
+
+    @Test
+    void localEvictionMovesPastFailingAndMalformedEntries() {
+        consumer.poll();
+        doThrow(new IllegalStateException("boom")).when(localMerchantCache).invalidate("swiggy");
+        append(Map.of("eventType", "MERCHANT_PATTERN_CHANGED", "merchant", "swiggy"));
+        append(Map.of("eventType", "CATEGORY_DELETED", "userId", "7"));
+        append(Map.of("eventType", "CATEGORY_DELETED", "categoryId", "42", "userId", "7"));
+
+        consumer.poll();
+        consumer.poll();
+
+        verify(localMerchantCache).invalidate("swiggy");
+        verify(localMerchantCache).invalidateCategory(42L);
+        verify(merchantPatternService).invalidateCategory(42L);
+        assertThat(ReflectionTestUtils.getField(consumer, "localOffset")).isEqualTo("3-0");
+    }
+
+    private void append(Map<Object, Object> fields) {
+        entries.add(MapRecord.<String, Object, Object>create(STREAM, fields).withId(RecordId.of((entries.size() + 1) + "-0")));
+    }
+
+    private static int compare(RecordId first, RecordId second) {
+        int byTime = Long.compare(first.getTimestamp(), second.getTimestamp());
+        return byTime != 0 ? byTime : Long.compare(first.getSequence(), second.getSequence());
+    }
+}
@@ -0,0 +1,94 @@
+package com.fincategorizer.transaction.event;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InProcessTransactionEventPublisherTest {
+
+    @Test
+    void deliversEventsCommittedOutOfIdOrder() {
+        RecordingListener listener = new RecordingListener("analytics", Set.of());
+        InProcessTransactionEventPublisher publisher = publisher(listener);
+
+        publisher.publish(events(1, 3));
+        // Id 2 committed after 3 was relayed
+        publisher.publish(events(2));
+
+        assertThat(listener.received).containsExactly(1L, 3L, 2L);
+    }
+
+    @Test
+    void redeliversOnlyToListenersThatFailed() {
+        RecordingListener healthy = new RecordingListener("healthy", Set.of());
+        RecordingListener failing = new RecordingListener("failing", Set.of(3L));
+        InProcessTransactionEventPublisher publisher = publisher(healthy, failing);
+
+        assertThatThrownBy(() -> publisher.publish(events(1, 2, 3, 4))).isInstanceOf(IllegalStateException.class);
+        failing.failing = Set.of();
+        publisher.publish(events(1, 2, 3, 4));
+
+        assertThat(healthy.received).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(failing.received).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void forgetsEventsBelowTheBatch() {
+        RecordingListener listener = new RecordingListener("analytics", Set.of());
+        InProcessTransactionEventPublisher publisher = publisher(listener);
+
+        publisher.publish(events(5, 6));
+        publisher.publish(events(7));
+        // Only possible if the relay republished rows, which then count as new events
+        publisher.publish(events(5));
+
+        assertThat(listener.received).containsExactly(5L, 6L, 7L, 5L);
+    }
+
+    private static InProcessTransactionEventPublisher publisher(TransactionEventListener... listeners) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        for (TransactionEventListener listener : listeners) {
+            beanFactory.addBean(listener.name(), listener);
+        }
+        return new InProcessTransactionEventPublisher(beanFactory.getBeanProvider(TransactionEventListener.class));
+    }
+
+    private static List<TransactionEvent> events(long... ids) {
+        List<TransactionEvent> events = new ArrayList<>();
+        for (long id : ids) {
+            events.add(TransactionEvent.builder().eventId(id).eventType(TransactionEventType.TRANSACTION_CREATED).build());
+        }
+        return events;
+    }
+
+    private static class RecordingListener implements TransactionEventListener {
+
+        private final String name;
+        private final List<Long> received = new ArrayList<>();
+        private Set<Long> failing;
+
+        RecordingListener(String name, Set<Long> failing) {
+            this.name = name;
+            this.failing = failing;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public void onEvent(TransactionEvent event) {
+            if (failing.contains(event.getEventId())) {
+                throw new IllegalStateException("Listener unavailable");
+            }
+            received.add(event.getEventId());
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.fincategorizer.transaction.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class MerchantCacheDoorkeeperTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, Long> redisTemplate = mock(RedisTemplate.class);
+    // Redis bitmaps by key
+    private final Map<String, BitSet> bitmaps = new HashMap<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        RedisOperations<String, Long> operations = mock(RedisOperations.class);
+        ValueOperations<String, Long> valueOperations = mock(ValueOperations.class);
+        List<Object> replies = new ArrayList<>();
+        when(operations.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setBit(anyString(), anyLong(), anyBoolean())).thenAnswer(call -> {
+            BitSet bitmap = bitmaps.computeIfAbsent(call.getArgument(0), key -> new BitSet());
+            int offset = Math.toIntExact(call.getArgument(1, Long.class));
+            replies.add(bitmap.get(offset));
+            bitmap.set(offset, call.getArgument(2, Boolean.class));
+            return null;
+        });
+        when(valueOperations.getBit(anyString(), anyLong())).thenAnswer(call -> {
+            replies.add(bitmaps.getOrDefault(call.getArgument(0), new BitSet())
+                .get(Math.toIntExact(call.getArgument(1, Long.class))));
+            return null;
+        });
+        // Plays the callback against the in-memory bitmaps and returns the queued replies
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(call -> {
+            replies.clear();
+            call.getArgument(0, SessionCallback.class).execute(operations);
+            return new ArrayList<>(replies);
+        });
+    }
+
+    @Test
+    void admitsMerchantOnItsSecondSighting() {
+        MerchantCacheDoorkeeper doorkeeper = doorkeeper(true, 86400);
+
+        assertThat(doorkeeper.admit(List.of("swiggy", "zomato"))).isEmpty();
+        assertThat(doorkeeper.admit(List.of("swiggy", "uber"))).containsExactly("swiggy");
+        assertThat(meterRegistry.counter("merchant.cache.admissions", "result", "admitted").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("merchant.cache.admissions", "result", "rejected").count()).isEqualTo(3);
+    }
+
+    @Test
+    void countsRepeatsWithinOneCallAsOneSighting() {
+        MerchantCacheDoorkeeper doorkeeper = doorkeeper(true, 86400);
+
+        assertThat(doorkeeper.admit(List.of("swiggy", "swiggy"))).isEmpty();
+        assertThat(doorkeeper.admit(List.of("swiggy"))).containsExactly("swiggy");
+    }
+
+    @Test
+    void admitsMerchantSightedWithoutAdmission() {
+        MerchantCacheDoorkeeper doorkeeper = doorkeeper(true, 86400);
+
+        doorkeeper.recordSightings(List.of("irctc"));
+
+        assertThat(doorkeeper.admit(List.of("irctc"))).containsExactly("irctc");
+    }
+
+    @Test
+    void countsSightingsOfThePreviousWindow() throws InterruptedException {
+        MerchantCacheDoorkeeper doorkeeper = doorkeeper(true, 1);
+        doorkeeper.recordSightings(List.of("swiggy"));
+        long window = System.currentTimeMillis() / 1000;
+
+        while (System.currentTimeMillis() / 1000 == window) {
+            Thread.sleep(20);
+        }
+
+        assertThat(doorkeeper.admit(List.of("swiggy"))).containsExactly("swiggy");
+    }
+
+    @Test
+    void admitsEverythingWhenDisabled() {
+        MerchantCacheDoorkeeper doorkeeper = doorkeeper(false, 86400);
+
+        assertThat(doorkeeper.admit(List.of("swiggy", "zomato"))).isEqualTo(Set.of("swiggy", "zomato"));
+        doorkeeper.recordSightings(List.of("swiggy"));
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void admitsEverythingWhenRedisFails() {
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+            .thenThrow(new RedisConnectionFailureException("down"));
+        MerchantCacheDoorkeeper doorkeeper = doorkeeper(true, 86400);
+
+        assertThat(doorkeeper.admit(List.of("swiggy"))).containsExactly("swiggy");
+    }
+
+    private MerchantCacheDoorkeeper doorkeeper(boolean enabled, long windowSeconds) {
+        return new MerchantCacheDoorkeeper(redisTemplate, meterRegistry, enabled, windowSeconds, 1 << 20, 3);
+    }
+}
@@ -0,0 +1,113 @@
+package com.fincategorizer.transaction.util;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a generated bank export with both CSV paths of the batch upload: commons-csv over
+ * a reader, as for small files, and the memory-mapped reader used above
+ * ingestion.mapped-csv.threshold. Both decode the four columns the upload uses.
+ * <p>
+ * Not run by the test phase; run it with
+ * {@code mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ * "-Dexec.args=-cp %classpath org.openjdk.jmh.Main MappedCsvReaderBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappedCsvReaderBenchmark {
+
+    private static final List<String> COLUMNS = List.of("merchant", "amount", "date", "currency");
+
+    @Param({"200000"})
+    int rows;
+
+    // Columns besides the four the upload reads, as in full bank statement exports
+    @Param({"0", "8"})
+    int extraColumns;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void writeFile() throws IOException {
+        file = Files.createTempFile("benchmark-transactions-", ".csv");
+        Random random = new Random(7);
+        String[] merchants = {"SWIGGY BANGALORE", "\"Amazon, Seller Services\"", "UBER TRIP", "Café Coffee Day", "IRCTC"};
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("merchant,amount,date,currency");
+            for (int c = 0; c < extraColumns; c++) {
+                out.write(",extra" + c);
+            }
+            out.write("\n");
+            for (int i = 0; i < rows; i++) {
+                out.write(merchants[random.nextInt(merchants.length)]);
+                out.write("," + random.nextInt(1000000) / 100.0 + ",2024-01-" + (10 + random.nextInt(20)) + ",INR");
+                for (int c = 0; c < extraColumns; c++) {
+                    out.write(",reference " + random.nextInt(100000));
+                }
+                out.write("\n");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void commonsCsv(Blackhole blackhole) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8));
+             CSVParser parser = new CSVParser(reader,
+                CSVFormat.DEFAULT.builder().setHeader().setSkipHeaderRecord(true).build())) {
+            for (CSVRecord record : parser) {
+                blackhole.consume(record.get("merchant"));
+                blackhole.consume(record.get("amount"));
+                blackhole.consume(record.get("date"));
+                blackhole.consume(record.get("currency"));
+            }
+        }
+    }
+
+    @Benchmark
+    public void mappedCsvReader(Blackhole blackhole) throws IOException {
+        try (MappedCsvReader reader = new MappedCsvReader(file, COLUMNS)) {
+            while (reader.next()) {
+                blackhole.consume(reader.get("merchant"));
+                blackhole.consume(reader.get("amount"));
+                blackhole.consume(reader.get("date"));
+                blackhole.consume(reader.get("currency"));
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.fincategorizer.transaction.util;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MappedCsvReaderTest {
+
+    private static final List<String> COLUMNS = List.of("merchant", "amount", "date", "currency");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsQuotedCommasQuotesAndLineBreaks() throws IOException {
+        Path file = write("merchant,amount,date\n" +
+            "\"Swiggy, Bangalore\",250.00,2024-01-15\n" +
+            "\"Line\nbreak\",10,2024-01-16\n" +
+            "\"Say \"\"hi\"\"\",5,2024-01-17\n");
+
+        assertThat(readAll(file, 1024)).containsExactly(
+            List.of("Swiggy, Bangalore", "250.00", "2024-01-15"),
+            List.of("Line\nbreak", "10", "2024-01-16"),
+            List.of("Say \"hi\"", "5", "2024-01-17"));
+    }
+
+    @Test
+    void readsCrLfLineBreaksAndSkipsBlankLines() throws IOException {
+        Path file = write("merchant,amount,date\r\nAmazon,99.50,2024-01-15\r\n\r\n\"Multi\r\nline\",1,2024-01-16\r\n");
+
+        assertThat(readAll(file, 1024)).containsExactly(
+            List.of("Amazon", "99.50", "2024-01-15"),
+            List.of("Multi\r\nline", "1", "2024-01-16"));
+    }
+
+    @Test
+    void skipsByteOrderMark() throws IOException {
+        Path file = dir.resolve("bom.csv");
+        Files.write(file, concat(new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF},
+            "merchant,amount,date\nZomato,120,2024-01-15\n".getBytes(StandardCharsets.UTF_8)));
+
+        try (MappedCsvReader reader = new MappedCsvReader(file, COLUMNS)) {
+            assertThat(reader.isMapped("merchant")).isTrue();
+            assertThat(reader.next()).isTrue();
+            assertThat(reader.get("merchant")).isEqualTo("Zomato");
+        }
+    }
+
+    @Test
+    void reportsMissingFieldsOfShortRows() throws IOException {
+        Path file = write("merchant,amount,date,currency\nUber,300,2024-01-15\nOla,80\n");
+
+        try (MappedCsvReader reader = new MappedCsvReader(file, COLUMNS)) {
+            assertThat(reader.next()).isTrue();
+            assertThat(reader.isSet("date")).isTrue();
+            assertThat(reader.isSet("currency")).isFalse();
+            assertThat(reader.get("currency")).isNull();
+
+            assertThat(reader.next()).isTrue();
+            assertThat(reader.get("merchant")).isEqualTo("Ola");
+            assertThat(reader.isSet("amount")).isTrue();
+            assertThat(reader.isSet("date")).isFalse();
+            assertThat(reader.get("date")).isNull();
+
+            assertThat(reader.next()).isFalse();
+        }
+    }
+
+    @Test
+    void readsLastRecordWithoutLineBreak() throws IOException {
+        Path file = write("merchant,amount,date\nFlipkart,1499,2024-01-15");
+
+        assertThat(readAll(file, 1024)).containsExactly(List.of("Flipkart", "1499", "2024-01-15"));
+    }
+
+    @Test
+    void matchesCommonsCsvWhenRecordsCrossWindowBoundaries() throws IOException {
+        String csv = randomCsv(new Random(42), 2000);
+        Path file = write(csv);
+        List<List<String>> expected = parseWithCommonsCsv(csv);
+
+        // Small windows put every kind of boundary (inside quotes, on "" pairs, between CR and LF) on a remap
+        for (long windowSize : new long[] {131, 160, 251, 4096}) {
+            assertThat(readAll(file, windowSize)).as("window of %d bytes", windowSize).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void readsRecordCrossingTheDefaultWindow() throws IOException {
+        byte[] row = "Amazon,99.50,2024-01-15\n".getBytes(StandardCharsets.UTF_8);
+        byte[] straddling = "\"Quoted,\nacross the window\",1,2024-01-16\n".getBytes(StandardCharsets.UTF_8);
+        byte[] header = "merchant,amount,date\n".getBytes(StandardCharsets.UTF_8);
+        long window = 64L * 1024 * 1024;
+        // The straddling record starts less than one row before the end of the first window
+        long rowsBefore = (window - header.length - 1) / row.length;
+
+        Path file = dir.resolve("large.csv");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 20)) {
+            out.write(header);
+            for (long i = 0; i < rowsBefore; i++) {
+                out.write(row);
+            }
+            out.write(straddling);
+            out.write(row);
+        }
+        long straddleStart = header.length + rowsBefore * row.length;
+        assertThat(straddleStart).isLessThan(window);
+        assertThat(straddleStart + straddling.length).isGreaterThan(window);
+
+        long count = 0;
+        try (MappedCsvReader reader = new MappedCsvReader(file, COLUMNS)) {
+            while (reader.next()) {
+                count++;
+                if (count == rowsBefore + 1) {
+                    assertThat(reader.get("merchant")).isEqualTo("Quoted,\nacross the window");
+                    assertThat(reader.get("date")).isEqualTo("2024-01-16");
+                }
+            }
+        }
+        assertThat(count).isEqualTo(rowsBefore + 2);
+    }
+
+    @Test
+    void rejectsRecordLargerThanWindow() throws IOException {
+        Path file = write("merchant,amount,date\n\"" + "x".repeat(200) + "\",1,2024-01-15\n");
+
+        try (MappedCsvReader reader = new MappedCsvReader(file, COLUMNS, 64)) {
+            assertThatThrownBy(reader::next)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("larger than 64 bytes");
+        }
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = Files.createTempFile(dir, "transactions-", ".csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static List<List<String>> readAll(Path file, long windowSize) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        try (MappedCsvReader reader = new MappedCsvReader(file, COLUMNS, windowSize)) {
+            while (reader.next()) {
+                records.add(List.of(reader.get("merchant"), reader.get("amount"), reader.get("date")));
+            }
+        }
+        return records;
+    }
+
+    private static List<List<String>> parseWithCommonsCsv(String csv) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        try (CSVParser parser = CSVFormat.DEFAULT.builder().setHeader().setSkipHeaderRecord(true).build()
+                .parse(new StringReader(csv))) {
+            for (CSVRecord record : parser) {
+                records.add(List.of(record.get("merchant"), record.get("amount"), record.get("date")));
+            }
+        }
+        return records;
+    }
+
+    // Unrequested columns around the requested ones, merchants with commas, quotes, CRLF and UTF-8
+    private static String randomCsv(Random random, int rows) throws IOException {
+        String[] fragments = {"Swiggy", "Café Coffee Day", "A, B & Co", "\"Quoted\"", "two\r\nlines", "₹ store", "x"};
+        StringWriter out = new StringWriter();
+        try (CSVPrinter printer = new CSVPrinter(out, CSVFormat.DEFAULT.builder().setRecordSeparator("\r\n").build())) {
+            printer.printRecord("id", "merchant", "notes", "amount", "date");
+            for (int i = 0; i < rows; i++) {
+                StringBuilder merchant = new StringBuilder();
+                for (int j = random.nextInt(4); j >= 0; j--) {
+                    merchant.append(fragments[random.nextInt(fragments.length)]);
+                }
+                printer.printRecord(i, merchant, random.nextBoolean() ? "" : "note, " + i,
+                    random.nextInt(100000) / 100.0, "2024-01-" + (10 + random.nextInt(20)));
+            }
+        }
+        return out.toString();
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] bytes = new byte[first.length + second.length];
+        System.arraycopy(first, 0, bytes, 0, first.length);
+        System.arraycopy(second, 0, bytes, first.length, second.length);
+        return bytes;
+    }
+}
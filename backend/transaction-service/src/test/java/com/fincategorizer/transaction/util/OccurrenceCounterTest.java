@@ -0,0 +1,68 @@
+package com.fincategorizer.transaction.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OccurrenceCounterTest {
+
+    @Test
+    void numbersRepeatedKeysExactlyWithinTheCap() {
+        OccurrenceCounter counter = new OccurrenceCounter(10);
+
+        assertThat(counter.next("coffee")).isZero();
+        assertThat(counter.next("lunch")).isZero();
+        assertThat(counter.next("coffee")).isEqualTo(1);
+        assertThat(counter.next("coffee")).isEqualTo(2);
+        assertThat(counter.next("lunch")).isEqualTo(1);
+    }
+
+    @Test
+    void keepsCountingKeysTrackedBeforeTheCapWasReached() {
+        OccurrenceCounter counter = new OccurrenceCounter(2);
+        counter.next("a");
+        counter.next("b");
+        for (int i = 0; i < 100_000; i++) {
+            counter.next("row " + i);
+        }
+
+        assertThat(counter.next("a")).isEqualTo(1);
+        assertThat(counter.next("b")).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotGrowWithDistinctRows() {
+        OccurrenceCounter counter = new OccurrenceCounter(1000);
+        for (int i = 0; i < 1_000_000; i++) {
+            counter.next("1|2024-01-15|" + i + "|INR|merchant " + i);
+        }
+
+        assertThat(counter.trackedKeys()).isEqualTo(1000);
+    }
+
+    @Test
+    void givesEachRepeatBeyondTheCapADistinctIncreasingNumber() {
+        OccurrenceCounter counter = new OccurrenceCounter(0);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            keys.add("merchant " + i % 50_000);
+        }
+
+        Set<String> fingerprints = new HashSet<>();
+        int[] last = new int[50_000];
+        Arrays.fill(last, -1);
+        for (int i = 0; i < keys.size(); i++) {
+            int occurrence = counter.next(keys.get(i));
+            assertThat(occurrence).isGreaterThan(last[i % 50_000]);
+            last[i % 50_000] = occurrence;
+            assertThat(fingerprints.add(keys.get(i) + "|" + occurrence)).isTrue();
+        }
+        assertThat(counter.trackedKeys()).isZero();
+    }
+}
@@ -0,0 +1,44 @@
+package com.fincategorizer.transaction.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionFingerprintTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 1, 15);
+
+    @Test
+    void normalizesAmountScaleAndCurrencyCase() {
+        String key = TransactionFingerprint.baseKey(1L, DATE, new BigDecimal("250.00"), "INR", "swiggy");
+
+        assertThat(key).isEqualTo("1|2024-01-15|250|INR|swiggy");
+        assertThat(TransactionFingerprint.baseKey(1L, DATE, new BigDecimal("250"), "inr", "swiggy")).isEqualTo(key);
+        assertThat(TransactionFingerprint.baseKey(1L, DATE, new BigDecimal("2.5E+2"), "Inr", "swiggy")).isEqualTo(key);
+    }
+
+    @Test
+    void keepsFieldsThatTellRowsApart() {
+        String key = TransactionFingerprint.baseKey(1L, DATE, new BigDecimal("250"), "INR", "swiggy");
+
+        assertThat(TransactionFingerprint.baseKey(2L, DATE, new BigDecimal("250"), "INR", "swiggy")).isNotEqualTo(key);
+        assertThat(TransactionFingerprint.baseKey(1L, DATE.plusDays(1), new BigDecimal("250"), "INR", "swiggy")).isNotEqualTo(key);
+        assertThat(TransactionFingerprint.baseKey(1L, DATE, new BigDecimal("250.01"), "INR", "swiggy")).isNotEqualTo(key);
+        assertThat(TransactionFingerprint.baseKey(1L, DATE, new BigDecimal("250"), "USD", "swiggy")).isNotEqualTo(key);
+        assertThat(TransactionFingerprint.baseKey(1L, DATE, new BigDecimal("250"), "INR", "zomato")).isNotEqualTo(key);
+    }
+
+    @Test
+    void computesStableHexDigestPerOccurrence() {
+        String key = TransactionFingerprint.baseKey(1L, DATE, new BigDecimal("120"), "INR", "starbucks");
+
+        String first = TransactionFingerprint.compute(key, 0);
+
+        assertThat(first).hasSize(64).matches("[0-9a-f]+");
+        assertThat(TransactionFingerprint.compute(key, 0)).isEqualTo(first);
+        assertThat(TransactionFingerprint.compute(key, 1)).isNotEqualTo(first);
+    }
+}
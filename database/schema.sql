@@ -6,7 +6,11 @@
 -- DROP EXISTING TABLES (for clean setup)
 -- ============================================================================
 DROP TABLE IF EXISTS analytics_metrics;
+DROP TABLE IF EXISTS transaction_outbox;
+DROP TABLE IF EXISTS category_outbox;
 DROP TABLE IF EXISTS model_training_data;
+DROP TABLE IF EXISTS merchant_correction_counts;
+DROP TABLE IF EXISTS user_merchant_overrides;
 DROP TABLE IF EXISTS transactions;
 DROP TABLE IF EXISTS merchant_patterns;
 DROP TABLE IF EXISTS categories;
@@ -67,12 +71,16 @@ CREATE TABLE transactions (
     confidence_score DECIMAL(4, 3) NOT NULL,  -- 0.000 to 1.000
     is_user_corrected BOOLEAN DEFAULT FALSE,
     metadata_json JSON,  -- Additional metadata: location, notes, tags, etc.
+    ingest_fingerprint CHAR(64) NULL,  -- SHA-256 of user/date/amount/currency/merchant for bulk ingestion dedup
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     
     FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE,
     FOREIGN KEY (category_id) REFERENCES categories(category_id),
     
+    -- Idempotent bulk ingestion (NULL for manually created transactions)
+    UNIQUE KEY uk_user_fingerprint (user_id, ingest_fingerprint),
+    
     -- Performance indexes
     INDEX idx_user_date (user_id, transaction_date DESC),
     INDEX idx_merchant_norm (merchant_normalized),
@@ -125,9 +133,73 @@ CREATE TABLE model_training_data (
     
     INDEX idx_user_processed (user_id, is_processed),
     INDEX idx_processed_date (is_processed, correction_date),
+    INDEX idx_processed_id (is_processed, training_id),  -- Keyset scan of the learning job
     UNIQUE KEY unique_correction (transaction_id)  -- One correction per transaction
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- ============================================================================
+-- MERCHANT CORRECTION COUNTS TABLE (running totals of processed corrections,
+-- used to promote consistent corrections into merchant_patterns)
+-- ============================================================================
+CREATE TABLE merchant_correction_counts (
+    merchant_normalized VARCHAR(255) NOT NULL,
+    user_id BIGINT NOT NULL,
+    category_id INT NOT NULL,
+    correction_count INT NOT NULL DEFAULT 0,
+    last_corrected TIMESTAMP NULL,
+    
+    PRIMARY KEY (merchant_normalized, user_id, category_id),
+    FOREIGN KEY (category_id) REFERENCES categories(category_id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ============================================================================
+-- USER MERCHANT OVERRIDES TABLE (a user's own category for a merchant, set by
+-- correcting a transaction; takes precedence over global mappings)
+-- ============================================================================
+CREATE TABLE user_merchant_overrides (
+    user_id BIGINT NOT NULL,
+    merchant_normalized VARCHAR(255) NOT NULL,
+    category_id INT NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    
+    PRIMARY KEY (user_id, merchant_normalized),
+    FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE,
+    FOREIGN KEY (category_id) REFERENCES categories(category_id) ON DELETE CASCADE,
+    
+    INDEX idx_category (category_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ============================================================================
+-- TRANSACTION OUTBOX TABLE (events written in the same DB transaction as the
+-- transactions change, relayed asynchronously to the event stream)
+-- ============================================================================
+CREATE TABLE transaction_outbox (
+    event_id BIGINT AUTO_INCREMENT PRIMARY KEY,  -- Global publish order
+    user_id BIGINT NOT NULL,
+    transaction_id BIGINT NOT NULL,
+    event_type VARCHAR(50) NOT NULL,  -- 'TRANSACTION_CREATED', 'TRANSACTION_UPDATED'
+    payload JSON NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    published_at TIMESTAMP NULL,  -- NULL until relayed
+    
+    INDEX idx_unpublished (published_at, event_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ============================================================================
+-- CATEGORY OUTBOX TABLE (category-service events written in the same DB
+-- transaction as the change, relayed to the category-events stream)
+-- ============================================================================
+CREATE TABLE category_outbox (
+    event_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_type VARCHAR(50) NOT NULL,  -- 'CATEGORY_DELETED', 'MERCHANT_PATTERN_CHANGED'
+    payload JSON NOT NULL,  -- stream entry fields
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    published_at TIMESTAMP NULL,  -- NULL until relayed
+    
+    INDEX idx_unpublished (published_at, event_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
 -- ============================================================================
 -- ANALYTICS METRICS TABLE (pre-computed aggregations)
 -- ============================================================================
@@ -329,7 +401,11 @@ ANALYZE TABLE categories;
 ANALYZE TABLE transactions;
 ANALYZE TABLE merchant_patterns;
 ANALYZE TABLE model_training_data;
+ANALYZE TABLE merchant_correction_counts;
+ANALYZE TABLE user_merchant_overrides;
 ANALYZE TABLE analytics_metrics;
+ANALYZE TABLE transaction_outbox;
+ANALYZE TABLE category_outbox;
 
 -- ============================================================================
 -- VIEWS FOR COMMON QUERIES
@@ -41,14 +41,15 @@ const Dashboard: React.FC = () => {
     try {
       setLoading(true);
       
-      // Load transactions
-      const txnResponse = await api.transactions.list({ page: 0, size: 100 });
-      const txns = txnResponse.data.content;
+      // Load transactions and categories in one aggregated call
+      const dashboardResponse = await api.dashboard.get({
+        transactionCount: 100,
+        parts: ['recentTransactions', 'categories'],
+      });
+      const dashboard = dashboardResponse.data;
+      const txns = dashboard.recentTransactions?.content || [];
       setTransactions(txns);
-      
-      // Load categories
-      const catResponse = await api.categories.list();
-      setCategories(catResponse.data.categories);
+      setCategories(dashboard.categories || []);
       
       // Calculate stats
       const total = txns.length;
@@ -63,7 +64,7 @@ const Dashboard: React.FC = () => {
         avgConfidence: avgConf,
       });
       
-      setError(null);
+      setError(dashboard.partial ? 'Some dashboard data is temporarily unavailable' : null);
     } catch (err: any) {
       setError(err.response?.data?.message || 'Failed to load data');
       console.error('Error loading data:', err);
@@ -123,6 +123,23 @@ export interface CategoryDistribution {
   }>;
 }
 
+export type DashboardPart =
+  | 'accuracy'
+  | 'categoryDistribution'
+  | 'trends'
+  | 'recentTransactions'
+  | 'categories';
+
+export interface DashboardSummary {
+  accuracy: AnalyticsAccuracy | null;
+  categoryDistribution: CategoryDistribution | null;
+  trends: any | null;
+  recentTransactions: PaginatedResponse<Transaction> | null;
+  categories: Category[] | null;
+  partial: boolean;
+  errors: Record<string, string>;
+}
+
 // API Service
 export const api = {
   // Authentication
@@ -195,6 +212,14 @@ export const api = {
       apiClient.get(`/api/categories/merchants/${encodeURIComponent(merchantName)}`),
   },
 
+  // Dashboard (aggregated by the gateway in one call)
+  dashboard: {
+    get: (params?: { trendDays?: number; transactionCount?: number; parts?: DashboardPart[] }) =>
+      apiClient.get<DashboardSummary>('/api/dashboard', {
+        params: { ...params, parts: params?.parts?.join(',') },
+      }),
+  },
+
   // Analytics
   analytics: {
     accuracy: (days: number = 30) =>
@@ -0,0 +1,171 @@
+#!/bin/bash
+
+# FinCategorizer - Virtual Thread Load Test
+# Starts a servlet service once on platform threads and once with the virtual-threads profile,
+# drives the same endpoint at increasing concurrency and compares throughput and latency.
+#
+# Usage: ./load-test.sh [--requests N] [--concurrency "C1 C2 ..."] [--user-id ID] [service ...]
+#   --requests N      requests per concurrency level (default 2000)
+#   --concurrency     concurrency levels to run (default "50 200 800")
+#   --user-id ID      X-User-Id sent with every request (default 1)
+#
+# Needs a Java 21 JDK (the services are built with -Pjava21) and running MySQL, Redis and,
+# for transaction-service, the ML service (docker-compose up -d mysql redis ml-inference-service).
+# transaction-service is driven with POST /api/transactions, which creates rows for the user.
+
+REQUESTS=2000
+CONCURRENCY="50 200 800"
+USER_ID=1
+SERVICES=()
+
+while [ $# -gt 0 ]; do
+    case "$1" in
+        --requests) REQUESTS="$2"; shift 2 ;;
+        --concurrency) CONCURRENCY="$2"; shift 2 ;;
+        --user-id) USER_ID="$2"; shift 2 ;;
+        *) SERVICES+=("$1"); shift ;;
+    esac
+done
+
+if [ ${#SERVICES[@]} -eq 0 ]; then
+    SERVICES=(transaction-service category-service analytics-service)
+fi
+
+ROOT_DIR="$(cd "$(dirname "$0")" && pwd)"
+
+JAVA_MAJOR=$(java -version 2>&1 | head -1 | sed -E 's/.*version "([0-9]+).*/\1/')
+if [ "${JAVA_MAJOR:-0}" -lt 21 ]; then
+    echo "Java 21 or newer is required for virtual threads (found: ${JAVA_MAJOR:-none})"
+    exit 1
+fi
+
+service_port() {
+    case "$1" in
+        transaction-service) echo 8081 ;;
+        category-service) echo 8082 ;;
+        analytics-service) echo 8083 ;;
+    esac
+}
+
+# curl arguments for the endpoint under test: a path through JDBC and, for transactions,
+# the blocking ML call and Redis
+request_args() {
+    local port=$1
+    case "$2" in
+        transaction-service)
+            echo "-X POST -H Content-Type:application/json -H X-User-Id:$USER_ID" \
+                "-d {\"merchantName\":\"LOADTEST-STORE\",\"amount\":12.50,\"currency\":\"USD\",\"transactionDate\":\"$(date +%Y-%m-%d)\"}" \
+                "http://localhost:$port/api/transactions" ;;
+        category-service)
+            echo "-H X-User-Id:$USER_ID http://localhost:$port/api/categories" ;;
+        analytics-service)
+            echo "-H X-User-Id:$USER_ID http://localhost:$port/api/analytics/accuracy" ;;
+    esac
+}
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+start_service() {
+    local service=$1
+    local port=$2
+    local mode=$3
+    local service_dir="$ROOT_DIR/backend/$service"
+    local profile_args=""
+    [ "$mode" = "virtual" ] && profile_args="--spring.profiles.active=virtual-threads"
+
+    (cd "$service_dir" && exec java -jar target/"$service"-*.jar --server.port="$port" $profile_args \
+        > target/load-test-"$mode".log 2>&1) &
+    echo $!
+}
+
+stop_service() {
+    kill "$1" 2>/dev/null
+    while kill -0 "$1" 2>/dev/null; do
+        sleep 0.2
+    done
+}
+
+wait_ready() {
+    local port=$1
+    local pid=$2
+    for _ in $(seq 1 600); do
+        code=$(curl -s -o /dev/null -w "%{http_code}" "http://localhost:$port/actuator/health")
+        [ "$code" != "000" ] && return 0
+        kill -0 "$pid" 2>/dev/null || return 1
+        sleep 0.2
+    done
+    return 1
+}
+
+# Fires N requests with C in flight and prints "<status> <seconds>" per request
+fire() {
+    local requests=$1
+    local concurrency=$2
+    shift 2
+    seq 1 "$requests" | xargs -P "$concurrency" -I{} \
+        curl -s -o /dev/null --max-time 30 -w "%{http_code} %{time_total}\n" "$@"
+}
+
+percentile() {
+    awk -v p="$1" '{ a[NR] = $1 } END { i = int(NR * p / 100); if (i < 1) i = 1; printf "%.0f", a[i] * 1000 }'
+}
+
+pinned_count() {
+    curl -s "http://localhost:$1/actuator/metrics/jvm.threads.virtual.pinned" \
+        | grep -o '"statistic":"COUNT","value":[0-9.]*' | sed 's/.*://'
+}
+
+echo "========================================"
+echo "FinCategorizer Virtual Thread Load Test"
+echo "requests=$REQUESTS concurrency=$CONCURRENCY"
+echo "========================================"
+printf "%-20s %-9s %6s %8s %8s %8s %8s %7s %7s\n" \
+    "SERVICE" "MODE" "CONC" "RPS" "P50_MS" "P95_MS" "P99_MS" "ERRORS" "PINNED"
+
+for service in "${SERVICES[@]}"; do
+    port=$(service_port "$service")
+    if [ -z "$port" ]; then
+        echo "Unknown service: $service"
+        continue
+    fi
+
+    echo "Building $service with -Pjava21..." >&2
+    (cd "$ROOT_DIR/backend/$service" && mvn -q -B clean package -DskipTests -Pjava21) >&2 \
+        || { echo "Build failed for $service"; continue; }
+
+    read -r -a args <<< "$(request_args "$port" "$service")"
+
+    for mode in platform virtual; do
+        pid=$(start_service "$service" "$port" "$mode")
+        if ! wait_ready "$port" "$pid"; then
+            echo "$service did not start in $mode mode, see backend/$service/target/load-test-$mode.log"
+            stop_service "$pid"
+            continue
+        fi
+
+        # Warm up connection pools and the JIT before measuring
+        fire 200 10 "${args[@]}" > /dev/null
+
+        for concurrency in $CONCURRENCY; do
+            results=$(mktemp)
+            start=$(now_ms)
+            fire "$REQUESTS" "$concurrency" "${args[@]}" > "$results"
+            elapsed=$(( $(now_ms) - start ))
+
+            times=$(awk '{ print $2 }' "$results" | sort -n)
+            errors=$(awk '$1 !~ /^2/' "$results" | wc -l)
+            rps=$(( REQUESTS * 1000 / (elapsed > 0 ? elapsed : 1) ))
+            pinned="-"
+            [ "$mode" = "virtual" ] && pinned=$(pinned_count "$port")
+
+            printf "%-20s %-9s %6s %8s %8s %8s %8s %7s %7s\n" "$service" "$mode" "$concurrency" "$rps" \
+                "$(percentile 50 <<< "$times")" "$(percentile 95 <<< "$times")" "$(percentile 99 <<< "$times")" \
+                "$errors" "${pinned:--}"
+            rm -f "$results"
+        done
+
+        stop_service "$pid"
+    done
+done
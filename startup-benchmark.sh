@@ -0,0 +1,173 @@
+#!/bin/bash
+
+# FinCategorizer - Startup Benchmark
+# Measures time-to-ready and first-request latency of the Spring Boot services.
+#
+# Usage: ./startup-benchmark.sh [--mode jar|cds] [--aot] [--runs N] [service ...]
+#   --mode jar   run the fat jar with java -jar (default)
+#   --mode cds   run the unpacked jars with an AppCDS archive, like the Docker images
+#   --aot        build with -Paot and start with -Dspring.aot.enabled=true
+#   --runs N     number of cold starts per service (default 3)
+#
+# MySQL and Redis should be running (docker-compose up -d mysql redis) so that the
+# services reach a healthy state and the first request hits the database.
+
+MODE=jar
+AOT=false
+RUNS=3
+SERVICES=()
+
+while [ $# -gt 0 ]; do
+    case "$1" in
+        --mode) MODE="$2"; shift 2 ;;
+        --aot) AOT=true; shift ;;
+        --runs) RUNS="$2"; shift 2 ;;
+        *) SERVICES+=("$1"); shift ;;
+    esac
+done
+
+if [ ${#SERVICES[@]} -eq 0 ]; then
+    SERVICES=(gateway-service transaction-service category-service analytics-service)
+fi
+
+ROOT_DIR="$(cd "$(dirname "$0")" && pwd)"
+
+service_port() {
+    case "$1" in
+        gateway-service) echo 8080 ;;
+        transaction-service) echo 8081 ;;
+        category-service) echo 8082 ;;
+        analytics-service) echo 8083 ;;
+    esac
+}
+
+service_main_class() {
+    case "$1" in
+        gateway-service) echo com.fincategorizer.gateway.GatewayServiceApplication ;;
+        transaction-service) echo com.fincategorizer.transaction.TransactionServiceApplication ;;
+        category-service) echo com.fincategorizer.category.CategoryServiceApplication ;;
+        analytics-service) echo com.fincategorizer.analytics.AnalyticsServiceApplication ;;
+    esac
+}
+
+# First request after startup: a real endpoint so lazy initialization is included
+first_request() {
+    local port=$1
+    case "$2" in
+        gateway-service)
+            curl -s -o /dev/null -w "%{http_code} %{time_total}" \
+                -H "Authorization: Bearer invalid" "http://localhost:$port/auth/me" ;;
+        transaction-service)
+            curl -s -o /dev/null -w "%{http_code} %{time_total}" \
+                -H "X-User-Id: 1" "http://localhost:$port/api/transactions?size=1" ;;
+        category-service)
+            curl -s -o /dev/null -w "%{http_code} %{time_total}" \
+                -H "X-User-Id: 1" "http://localhost:$port/api/categories" ;;
+        analytics-service)
+            curl -s -o /dev/null -w "%{http_code} %{time_total}" \
+                -H "X-User-Id: 1" "http://localhost:$port/api/analytics/accuracy" ;;
+    esac
+}
+
+stop_service() {
+    kill "$1" 2>/dev/null
+    while kill -0 "$1" 2>/dev/null; do
+        sleep 0.2
+    done
+}
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+prepare() {
+    local service=$1
+    local service_dir="$ROOT_DIR/backend/$service"
+    local work_dir="$service_dir/target/startup-benchmark"
+    local profile=""
+    [ "$AOT" = "true" ] && profile="-Paot"
+
+    echo "Building $service $profile..." >&2
+    (cd "$service_dir" && mvn -q -B clean package -DskipTests $profile) >&2 || return 1
+
+    rm -rf "$work_dir" && mkdir -p "$work_dir"
+    if [ "$MODE" = "cds" ]; then
+        (cd "$work_dir" \
+            && jar -xf ../"$service"-*.jar \
+            && mv BOOT-INF/lib lib \
+            && jar -cf app.jar -C BOOT-INF/classes . \
+            && rm -rf BOOT-INF META-INF org)
+        echo "Training CDS archive for $service..." >&2
+        (cd "$work_dir" && java -XX:ArchiveClassesAtExit=app.jsa -Dspring.context.exit=onRefresh \
+            -Dspring.aot.enabled=$AOT -Dlogging.file.name= \
+            -Dspring.jpa.properties.hibernate.temp.use_jdbc_metadata_defaults=false \
+            -cp "app.jar:lib/*" "$(service_main_class "$service")" > training.log 2>&1)
+    fi
+    echo "$work_dir"
+}
+
+start_service() {
+    local service=$1
+    local work_dir=$2
+    local port=$3
+    local service_dir="$ROOT_DIR/backend/$service"
+
+    if [ "$MODE" = "cds" ]; then
+        (cd "$work_dir" && exec java -XX:SharedArchiveFile=app.jsa -Xshare:auto \
+            -Dspring.aot.enabled=$AOT -cp "app.jar:lib/*" "$(service_main_class "$service")" \
+            --server.port="$port" > run.log 2>&1) &
+    else
+        (cd "$work_dir" && exec java -Dspring.aot.enabled=$AOT -jar "$service_dir"/target/"$service"-*.jar \
+            --server.port="$port" > run.log 2>&1) &
+    fi
+    echo $!
+}
+
+echo "========================================"
+echo "FinCategorizer Startup Benchmark"
+echo "mode=$MODE aot=$AOT runs=$RUNS"
+echo "========================================"
+printf "%-22s %4s %10s %10s %14s %8s\n" "SERVICE" "RUN" "READY_MS" "JVM_S" "FIRST_REQ_MS" "STATUS"
+
+for service in "${SERVICES[@]}"; do
+    port=$(service_port "$service")
+    if [ -z "$port" ]; then
+        echo "Unknown service: $service"
+        continue
+    fi
+
+    work_dir=$(prepare "$service") || { echo "Build failed for $service"; continue; }
+
+    for run in $(seq 1 "$RUNS"); do
+        start=$(now_ms)
+        pid=$(start_service "$service" "$work_dir" "$port")
+
+        # Ready = the server answers HTTP at all (health may be DOWN without dependencies)
+        ready=""
+        for _ in $(seq 1 1200); do
+            code=$(curl -s -o /dev/null -w "%{http_code}" "http://localhost:$port/actuator/health")
+            if [ "$code" != "000" ]; then
+                ready=$(( $(now_ms) - start ))
+                break
+            fi
+            if ! kill -0 "$pid" 2>/dev/null; then
+                break
+            fi
+            sleep 0.1
+        done
+
+        if [ -z "$ready" ]; then
+            printf "%-22s %4s %10s %10s %14s %8s\n" "$service" "$run" "-" "-" "-" "FAILED"
+            stop_service "$pid"
+            continue
+        fi
+
+        read -r status seconds <<< "$(first_request "$port" "$service")"
+        first_ms=$(awk -v s="$seconds" 'BEGIN { printf "%.0f", s * 1000 }')
+        jvm_s=$(grep -o "Started [A-Za-z]* in [0-9.]* seconds" "$work_dir/run.log" | awk '{ print $4 }')
+
+        printf "%-22s %4s %10s %10s %14s %8s\n" "$service" "$run" "$ready" "${jvm_s:--}" "$first_ms" "$status"
+
+        stop_service "$pid"
+    done
+done